@@ -1,16 +1,16 @@
 package betterquesting.api.api;
 
 import java.util.HashMap;
-import java.util.Optional;
 import java.util.UUID;
 
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
-import net.minecraft.server.MinecraftServer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import betterquesting.api2.utils.OnlinePlayers;
+
 /**
  * Storage for all the questing API hooks. Includes built-in and custom APIs
  */
@@ -70,11 +70,6 @@ public class QuestingAPI {
     }
 
     public static EntityPlayerMP getPlayer(UUID uuid) {
-        Optional onlinePlayer = MinecraftServer.getServer()
-            .getConfigurationManager().playerEntityList.stream()
-                .filter(i -> i instanceof EntityPlayerMP)
-                .filter(o -> getQuestingUUID((EntityPlayer) o).equals(uuid))
-                .findFirst();
-        return onlinePlayer.isPresent() ? (EntityPlayerMP) onlinePlayer.get() : null;
+        return OnlinePlayers.get(uuid);
     }
 }
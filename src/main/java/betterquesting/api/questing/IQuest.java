@@ -30,6 +30,22 @@ public interface IQuest extends INBTSaveLoad<NBTTagCompound>, INBTProgress<NBTTa
 
     void setCompletionInfo(UUID uuid, @Nullable NBTTagCompound nbt);
 
+    /**
+     * Returns true if the user has a completion entry of their own, i.e. {@link #getCompletionInfo(UUID)} is not null.
+     * Unlike {@link #isComplete(UUID)} this ignores the global property.
+     */
+    default boolean hasCompletionInfo(UUID uuid) {
+        return getCompletionInfo(uuid) != null;
+    }
+
+    /**
+     * Returns the timestamp of the user's completion entry without building the tag, or 0 if they have none.
+     */
+    default long getCompletionTime(UUID uuid) {
+        NBTTagCompound info = getCompletionInfo(uuid);
+        return info == null ? 0L : info.getLong("timestamp");
+    }
+
     void update(EntityPlayer player);
 
     void detect(EntityPlayer player);
@@ -78,6 +94,22 @@ public interface IQuest extends INBTSaveLoad<NBTTagCompound>, INBTProgress<NBTTa
 
     void resetUser(@Nullable UUID uuid, boolean fullReset);
 
+    /**
+     * Returns true if this quest or any of its tasks hold progress data for the given user.
+     * Used to skip quests when writing a single user's progress.
+     */
+    default boolean hasProgress(UUID uuid) {
+        return true;
+    }
+
+    /**
+     * Returns a number that changes whenever the given user's completion entry for this quest does. Task progress is
+     * tracked by the tasks themselves. A negative value means the quest does not track this.
+     */
+    default long getProgressRevision(UUID uuid) {
+        return -1L;
+    }
+
     IDatabaseNBT<ITask, NBTTagList, NBTTagList> getTasks();
 
     IDatabaseNBT<IReward, NBTTagList, NBTTagList> getRewards();
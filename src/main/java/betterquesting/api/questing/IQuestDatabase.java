@@ -1,6 +1,12 @@
 package betterquesting.api.questing;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import net.minecraft.nbt.NBTTagList;
 
@@ -11,4 +17,33 @@ import betterquesting.api2.storage.IUuidDatabase;
 public interface IQuestDatabase extends IUuidDatabase<IQuest>, INBTPartial<NBTTagList, UUID>, INBTProgress<NBTTagList> {
 
     IQuest createNew(UUID uuid);
+
+    /**
+     * Returns the IDs of all quests that directly list {@code questID} as a requirement.
+     */
+    default Set<UUID> getDependents(UUID questID) {
+        return entrySet().stream()
+            .filter(
+                entry -> entry.getValue()
+                    .getRequirements()
+                    .contains(questID))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the given quests plus every quest that transitively depends on one of them.
+     */
+    default Set<UUID> getDependentClosure(Collection<UUID> questIDs) {
+        Set<UUID> closure = new HashSet<>(questIDs);
+        ArrayDeque<UUID> queue = new ArrayDeque<>(closure);
+
+        while (!queue.isEmpty()) {
+            for (UUID dep : getDependents(queue.poll())) {
+                if (closure.add(dep)) queue.add(dep);
+            }
+        }
+
+        return closure;
+    }
 }
@@ -3,7 +3,9 @@ package betterquesting.api.questing;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import net.minecraft.nbt.NBTTagList;
@@ -20,6 +22,18 @@ public interface IQuestLineDatabase extends IUuidDatabase<IQuestLine>, INBTParti
      */
     void removeQuest(UUID questID);
 
+    /**
+     * Returns the IDs of all quest lines containing the given quest
+     */
+    default Set<UUID> getLinesWithQuest(UUID questID) {
+        return entrySet().stream()
+            .filter(
+                entry -> entry.getValue()
+                    .containsKey(questID))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    }
+
     int getOrderIndex(UUID lineID);
 
     void setOrderIndex(UUID lineID, int index);
@@ -3,6 +3,7 @@ package betterquesting.api.questing.tasks;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
@@ -48,6 +49,30 @@ public interface ITask extends INBTSaveLoad<NBTTagCompound>, INBTProgress<NBTTag
         return false;
     }
 
+    /**
+     * Returns true if this task holds any progress data for the given user. Tasks that cannot tell cheaply should
+     * keep the default so their data is never skipped when saving.
+     */
+    default boolean hasProgress(UUID uuid) {
+        return true;
+    }
+
+    /**
+     * Sets a callback that must be notified with the user's ID whenever this task gains progress data for a user that
+     * had none before. Returns false if the task does not support this.
+     */
+    default boolean setProgressListener(@Nullable Consumer<UUID> listener) {
+        return false;
+    }
+
+    /**
+     * Returns a number that changes whenever the given user's progress on this task does, used to send only the
+     * tasks that changed. A negative value means the task does not track this and is always sent in full.
+     */
+    default long getProgressRevision(UUID uuid) {
+        return -1L;
+    }
+
     default List<String> getTextsForSearch() {
         return null;
     }
@@ -42,4 +42,7 @@ public class BQ_Settings {
     public static boolean logNullQuests = true;
     public static boolean unrestrictAdminCommands = false;
     public static boolean noRewards = false;
+    public static int cacheRefreshInterval = 10;
+    public static boolean lazyProgress = true;
+    public static int ioQueueLimit = 1024;
 }
@@ -1,6 +1,8 @@
 package betterquesting.api.utils;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -37,6 +39,8 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import betterquesting.api.api.QuestingAPI;
@@ -164,7 +168,7 @@ public class JsonHelper {
     }
 
     public static JsonObject ReadFromFile(File file) {
-        Future<JsonObject> task = BQThreadedIO.INSTANCE.enqueue(() -> {
+        Future<JsonObject> task = BQThreadedIO.DISK_READ.enqueue(() -> {
             if (file == null || !file.exists()
                 || file.getName()
                     .contains(".DS_Store")
@@ -203,6 +207,60 @@ public class JsonHelper {
         }
     }
 
+    /**
+     * Reads a JSON file directly into NBT without building an intermediate JsonObject
+     */
+    public static NBTTagCompound ReadNBTFromFile(File file, boolean format) {
+        Future<NBTTagCompound> task = BQThreadedIO.DISK_READ.enqueue(() -> ParseNBTFromFile(file, format));
+
+        try {
+            return task.get(); // Wait for other scheduled file ops to finish
+        } catch (Exception e) {
+            QuestingAPI.getLogger()
+                .error("Unable to read from file " + file, e);
+            return new NBTTagCompound();
+        }
+    }
+
+    /**
+     * Same as {@link #ReadNBTFromFile(File, boolean)} but runs on the calling thread. Only use this for files that
+     * aren't being written to concurrently
+     */
+    public static NBTTagCompound ParseNBTFromFile(File file, boolean format) {
+        if (file == null || !file.exists()
+            || file.getName()
+                .contains(".DS_Store")
+            || file.getName()
+                .contains("malformed_")) {
+            return new NBTTagCompound();
+        }
+
+        try (FileInputStream fis = new FileInputStream(file);
+            InputStreamReader fr = new InputStreamReader(fis, StandardCharsets.UTF_8);
+            JsonReader json = new JsonReader(new BufferedReader(fr))) {
+            json.setLenient(true);
+
+            if (json.peek() == JsonToken.END_DOCUMENT) {
+                return new NBTTagCompound();
+            }
+
+            return NBTConverter.JSONtoNBT_Object(json, new NBTTagCompound(), format);
+        } catch (EOFException e) {
+            return new NBTTagCompound(); // Empty file
+        } catch (Exception e) {
+            QuestingAPI.getLogger()
+                .log(Level.ERROR, "An error occured while loading JSON from file:", e);
+
+            File bkup = new File(file.getParent(), "malformed_" + file.getName() + ".json");
+
+            QuestingAPI.getLogger()
+                .log(Level.ERROR, "Creating backup at: " + bkup.getAbsolutePath());
+            CopyPaste(file, bkup);
+
+            return new NBTTagCompound();
+        }
+    }
+
     public static void WriteToFile(File file, JsonObject jObj) {
         WriteToFile2(file, jObj);
     }
@@ -211,7 +269,7 @@ public class JsonHelper {
     public static Future<Void> WriteToFile2(File file, JsonObject jObj) {
         final File tmp = new File(file.getAbsolutePath() + ".tmp");
 
-        return BQThreadedIO.DISK_IO.enqueue(() -> {
+        return BQThreadedIO.DISK_WRITE.enqueue(() -> {
             try {
                 if (tmp.exists()) {
                     tmp.delete();
@@ -266,7 +324,7 @@ public class JsonHelper {
     public static Future<Void> WriteToFile2(File file, IOConsumer<JsonWriter> jObj) {
         final File tmp = new File(file.getAbsolutePath() + ".tmp");
 
-        return BQThreadedIO.DISK_IO.enqueue(() -> {
+        return BQThreadedIO.DISK_WRITE.enqueue(() -> {
             try {
                 if (tmp.exists()) tmp.delete();
                 else if (tmp.getParentFile() != null) tmp.getParentFile()
@@ -35,7 +35,11 @@ import org.apache.logging.log4j.Level;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import betterquesting.api.api.QuestingAPI;
@@ -313,6 +317,107 @@ public class NBTConverter {
         return tags;
     }
 
+    /**
+     * Reads a JSON object straight from the stream into a NBTTagCompound without building a JsonObject first
+     */
+    public static NBTTagCompound JSONtoNBT_Object(JsonReader in, NBTTagCompound tags, boolean format)
+        throws IOException {
+        in.beginObject();
+
+        while (in.hasNext()) {
+            String key = in.nextName();
+
+            if (!format) {
+                tags.setTag(key, JSONtoNBT_Element(in, (byte) 0, false));
+            } else {
+                String[] s = key.split(":");
+                byte id = 0;
+
+                try {
+                    id = Byte.parseByte(s[s.length - 1]);
+                    key = key.substring(0, key.lastIndexOf(":" + id));
+                } catch (Exception e) {
+                    if (tags.hasKey(key)) {
+                        QuestingAPI.getLogger()
+                            .log(Level.WARN, "JSON/NBT formatting conflict on key '" + key + "'. Skipping...");
+                        in.skipValue();
+                        continue;
+                    }
+                }
+
+                tags.setTag(key, JSONtoNBT_Element(in, id, true));
+            }
+        }
+
+        in.endObject();
+        return tags;
+    }
+
+    /**
+     * Streaming counterpart of {@link #JSONtoNBT_Element(JsonElement, byte, boolean)}. Values that can't be typed
+     * from the next token alone (untyped arrays, mismatched type hints) are parsed into a JsonElement and handed to
+     * the tree converter so both paths produce the same tags
+     */
+    private static NBTBase JSONtoNBT_Element(JsonReader in, byte id, boolean format) throws IOException {
+        JsonToken token = in.peek();
+
+        if (id <= 0) {
+            switch (token) {
+                case BEGIN_OBJECT:
+                    id = 10;
+                    break;
+                case STRING:
+                    id = 8;
+                    break;
+                case BOOLEAN:
+                    return new NBTTagByte(in.nextBoolean() ? (byte) 1 : (byte) 0);
+                case NUMBER:
+                    String num = in.nextString();
+                    return instanceNumber(new LazilyParsedNumber(num), num.contains(".") ? (byte) 6 : (byte) 4);
+                default:
+                    break;
+            }
+        }
+
+        if (id == 1 && token == JsonToken.BOOLEAN) {
+            return new NBTTagByte(in.nextBoolean() ? (byte) 1 : (byte) 0);
+        } else if (id >= 1 && id <= 6 && token == JsonToken.NUMBER) {
+            return instanceNumber(new LazilyParsedNumber(in.nextString()), id);
+        } else if (id == 8 && (token == JsonToken.STRING || token == JsonToken.NUMBER)) {
+            return new NBTTagString(in.nextString());
+        } else if (id == 10 && token == JsonToken.BEGIN_OBJECT) {
+            return JSONtoNBT_Object(in, new NBTTagCompound(), format);
+        } else if (id == 9 && (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY)) {
+            NBTTagList tList = new NBTTagList();
+
+            if (token == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    tList.appendTag(JSONtoNBT_Element(in, (byte) 0, format));
+                }
+                in.endArray();
+            } else {
+                in.beginObject();
+                while (in.hasNext()) {
+                    String[] s = in.nextName()
+                        .split(":");
+                    byte id2 = 0;
+
+                    try {
+                        id2 = Byte.parseByte(s[s.length - 1]);
+                    } catch (Exception ignored) {}
+
+                    tList.appendTag(JSONtoNBT_Element(in, id2, format));
+                }
+                in.endObject();
+            }
+
+            return tList;
+        }
+
+        return JSONtoNBT_Element(new JsonParser().parse(in), id, format);
+    }
+
     /**
      * Tries to interpret the tagID from the JsonElement's contents
      */
@@ -26,6 +26,41 @@ public class UuidConverter {
             .encodeToString(Bytes.concat(upper, lower));
     }
 
+    /** Orders UUIDs the same way as comparing their {@link #encodeUuid(UUID)} strings, without encoding them. */
+    public static int compareEncoded(UUID a, UUID b) {
+        long aMost = a.getMostSignificantBits(), aLeast = a.getLeastSignificantBits();
+        long bMost = b.getMostSignificantBits(), bLeast = b.getLeastSignificantBits();
+
+        // 128 bits make 22 Base64 digits, the last '==' padding is the same for every UUID
+        for (int i = 0; i < 22; i++) {
+            int ca = ENCODED_CHARS[sextet(aMost, aLeast, i)];
+            int cb = ENCODED_CHARS[sextet(bMost, bLeast, i)];
+            if (ca != cb) return ca - cb;
+        }
+
+        return 0;
+    }
+
+    private static final char[] ENCODED_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+        .toCharArray();
+
+    private static int sextet(long most, long least, int index) {
+        int bit = index * 6;
+
+        if (bit + 6 <= 64) {
+            return (int) (most >>> (58 - bit)) & 63;
+        } else if (bit < 64) {
+            // Digit spanning both halves
+            int high = 64 - bit;
+            return (int) (((most << (6 - high)) | (least >>> (58 + high))) & 63);
+        } else if (bit + 6 <= 128) {
+            return (int) (least >>> (122 - bit)) & 63;
+        } else {
+            // Last digit, zero padded
+            return (int) (least << (bit + 6 - 128)) & 63;
+        }
+    }
+
     /**
      * Returns a compact string representation of a UUID, with trailing '=' removed.
      * This is used for quest book translation keys, which must not contain '='.
@@ -1,7 +1,10 @@
 package betterquesting.api2.cache;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -9,6 +12,7 @@ import java.util.TreeSet;
 import java.util.UUID;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
@@ -20,15 +24,19 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.IExtendedEntityProperties;
 import net.minecraftforge.common.util.Constants;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
 import betterquesting.api.api.ApiReference;
 import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.enums.EnumQuestVisibility;
 import betterquesting.api.properties.NativeProps;
 import betterquesting.api.questing.IQuest;
+import betterquesting.api.questing.tasks.ITask;
 import betterquesting.api.storage.BQ_Settings;
 import betterquesting.api.utils.NBTConverter;
+import betterquesting.api2.storage.DBEntry;
 import betterquesting.network.handlers.NetCacheSync;
 import betterquesting.questing.QuestDatabase;
 
@@ -53,6 +61,18 @@ public class QuestCache implements IExtendedEntityProperties {
     // Quests that need to be sent to the client to update progression (NOT for edits. Handle that elsewhere)
     private final HashSet<UUID> markedDirty = new HashSet<>();
 
+    // Tasks of the active quests grouped by the type they were requested as. Built lazily and dropped whenever the
+    // active set or the quest configs change so events only visit tasks that can actually react to them
+    private final HashMap<Class<?>, List<ActiveTask<?>>> taskIndex = new HashMap<>();
+    private int taskIndexRevision = -1;
+
+    // Progress revision each task had for this player when it last checked their inventory. Lives with the player and
+    // is dropped together with the task index, as task instances are replaced when quests are loaded or edited
+    private final IdentityHashMap<ITask, Long> checkedRevisions = new IdentityHashMap<>();
+
+    // Bumped whenever quest configs are (re)loaded or removed, since that replaces the task instances we index
+    private static volatile int configRevision = 0;
+
     @Override
     public void init(Entity entity, World world) {}
 
@@ -97,6 +117,66 @@ public class QuestCache implements IExtendedEntityProperties {
         markedDirty.clear();
     }
 
+    /**
+     * Returns all tasks of the currently active quests that are instances of {@code type}.
+     * The result is cached until the active quest set or the quest database changes.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> List<ActiveTask<T>> getActiveTasks(@Nonnull Class<T> type) {
+        checkConfigRevision();
+
+        List<ActiveTask<?>> cached = taskIndex.get(type);
+        if (cached == null) {
+            ImmutableList.Builder<ActiveTask<?>> builder = ImmutableList.builder();
+            for (UUID questID : activeQuests) {
+                IQuest quest = QuestDatabase.INSTANCE.get(questID);
+                if (quest == null) continue;
+
+                Map.Entry<UUID, IQuest> questEntry = Maps.immutableEntry(questID, quest);
+                for (DBEntry<ITask> task : quest.getTasks()
+                    .getEntries()) {
+                    if (type.isInstance(task.getValue())) {
+                        builder.add(new ActiveTask<>(questEntry, task.getID(), type.cast(task.getValue())));
+                    }
+                }
+            }
+            cached = builder.build();
+            taskIndex.put(type, cached);
+        }
+
+        return (List<ActiveTask<T>>) (List<?>) cached;
+    }
+
+    /**
+     * Returns the progress revision the task had for this player when it last checked their inventory, or null if it
+     * hasn't since quests were last loaded or edited.
+     */
+    @Nullable
+    public synchronized Long getCheckedRevision(@Nonnull ITask task) {
+        checkConfigRevision();
+        return checkedRevisions.get(task);
+    }
+
+    public synchronized void setCheckedRevision(@Nonnull ITask task, long revision) {
+        checkConfigRevision();
+        checkedRevisions.put(task, revision);
+    }
+
+    private void checkConfigRevision() {
+        if (taskIndexRevision != configRevision) {
+            taskIndex.clear();
+            checkedRevisions.clear();
+            taskIndexRevision = configRevision;
+        }
+    }
+
+    /**
+     * Drops the active task index of every player. Must be called whenever quests are loaded, edited or removed.
+     */
+    public static void invalidateTaskIndices() {
+        configRevision++;
+    }
+
     /**
      * This method must return a copy of {@code markedDirty}, because {@code markedDirty} gets
      * cleared every tick. Returning it directly means introducing a potential race condition where
@@ -121,52 +201,26 @@ public class QuestCache implements IExtendedEntityProperties {
 
         long currentTime = System.currentTimeMillis();
         for (Map.Entry<UUID, IQuest> entry : questDB) {
-            if (entry.getValue()
-                .isUnlocked(uuid)
-                || entry.getValue()
-                    .getProperty(NativeProps.LOCKED_PROGRESS)) // Unlocked or actively processing progression data
-            {
-                int repeat = entry.getValue()
-                    .getProperty(NativeProps.REPEAT_TIME);
-                NBTTagCompound ue = entry.getValue()
-                    .getCompletionInfo(uuid);
-
-                if ((ue == null && entry.getValue()
-                    .getTasks()
-                    .size() <= 0) || entry.getValue()
-                        .canSubmit(player)) // Can be active without completion in the case of locked progress. Also
-                                            // account for taskless quests
-                {
-                    tmpActive.add(entry.getKey());
-                } else if (ue != null) // These conditions only trigger after first completion
-                {
-                    if (repeat >= 0 && entry.getValue()
-                        .hasClaimed(uuid)) {
-                        long altTime = ue.getLong("timestamp");
-                        if (altTime > currentTime) altTime = currentTime;
-                        if (repeat > 1 && !entry.getValue()
-                            .getProperty(NativeProps.REPEAT_REL)) altTime -= (altTime % repeat);
-                        tmpReset.add(new QResetTime(entry.getKey(), altTime + (repeat * 50)));
-                    }
-
-                    if (!entry.getValue()
-                        .hasClaimed(uuid) && entry.getValue()
-                            .getProperty(NativeProps.AUTO_CLAIM)) {
-                        tmpAutoClaim.add(entry.getKey());
-                    }
-                }
-            }
-
-            if (isQuestShown(entry.getValue(), uuid, player)) {
-                tmpVisible.add(entry.getKey());
-            }
+            evaluateQuest(
+                entry.getKey(),
+                entry.getValue(),
+                uuid,
+                player,
+                currentTime,
+                tmpVisible,
+                tmpActive,
+                tmpReset,
+                tmpAutoClaim);
         }
 
         visibleQuests.clear();
         visibleQuests.addAll(tmpVisible);
 
-        activeQuests.clear();
-        activeQuests.addAll(tmpActive);
+        if (activeQuests.size() != tmpActive.size() || !activeQuests.containsAll(tmpActive)) {
+            activeQuests.clear();
+            activeQuests.addAll(tmpActive);
+            taskIndex.clear();
+        }
 
         resetSchedule.clear();
         resetSchedule.addAll(tmpReset);
@@ -179,6 +233,98 @@ public class QuestCache implements IExtendedEntityProperties {
         }
     }
 
+    /**
+     * Re-evaluates only the given quests and everything downstream of them in the prerequisite graph, updating the
+     * cached sets in place. Use this when the completion, claim or reset state of specific quests changed.
+     */
+    public synchronized void updateCache(@Nonnull EntityPlayer player, @Nonnull Collection<UUID> changedQuests) {
+        if (changedQuests.isEmpty()) return;
+
+        UUID uuid = QuestingAPI.getQuestingUUID(player);
+        Set<UUID> affected = QuestDatabase.INSTANCE.getDependentClosure(changedQuests);
+
+        List<UUID> tmpVisible = new ArrayList<>();
+        List<UUID> tmpActive = new ArrayList<>();
+        List<QResetTime> tmpReset = new ArrayList<>();
+        List<UUID> tmpAutoClaim = new ArrayList<>();
+
+        long currentTime = System.currentTimeMillis();
+        for (UUID questID : affected) {
+            IQuest quest = QuestDatabase.INSTANCE.get(questID);
+            if (quest != null) {
+                evaluateQuest(
+                    questID,
+                    quest,
+                    uuid,
+                    player,
+                    currentTime,
+                    tmpVisible,
+                    tmpActive,
+                    tmpReset,
+                    tmpAutoClaim);
+            }
+        }
+
+        boolean changed = replaceSubset(visibleQuests, affected, tmpVisible);
+
+        if (replaceSubset(activeQuests, affected, tmpActive)) {
+            taskIndex.clear();
+            changed = true;
+        }
+
+        changed |= replaceSubset(autoClaims, affected, tmpAutoClaim);
+        changed |= resetSchedule.removeIf(entry -> affected.contains(entry.questID));
+        changed |= resetSchedule.addAll(tmpReset);
+
+        if (changed && player instanceof EntityPlayerMP) {
+            NetCacheSync.sendSync((EntityPlayerMP) player);
+        }
+    }
+
+    // Replaces the entries of {@code target} that belong to {@code affected} with {@code updated}
+    private static boolean replaceSubset(Set<UUID> target, Set<UUID> affected, List<UUID> updated) {
+        Set<UUID> keep = new HashSet<>(updated);
+        boolean changed = false;
+        for (UUID questID : affected) {
+            changed |= keep.contains(questID) ? target.add(questID) : target.remove(questID);
+        }
+        return changed;
+    }
+
+    private void evaluateQuest(UUID questID, IQuest quest, UUID uuid, EntityPlayer player, long currentTime,
+        List<UUID> tmpVisible, List<UUID> tmpActive, List<QResetTime> tmpReset, List<UUID> tmpAutoClaim) {
+        if (quest.isUnlocked(uuid) || quest.getProperty(NativeProps.LOCKED_PROGRESS)) // Unlocked or actively
+                                                                                       // processing progression data
+        {
+            int repeat = quest.getProperty(NativeProps.REPEAT_TIME);
+            // Read straight from the completion table, building the completion tag here ran for every quest and player
+            boolean completed = quest.hasCompletionInfo(uuid);
+
+            if ((!completed && quest.getTasks()
+                .size() <= 0) || quest.canSubmit(player)) // Can be active without completion in the case of locked
+                                                          // progress. Also account for taskless quests
+            {
+                tmpActive.add(questID);
+            } else if (completed) // These conditions only trigger after first completion
+            {
+                if (repeat >= 0 && quest.hasClaimed(uuid)) {
+                    long altTime = quest.getCompletionTime(uuid);
+                    if (altTime > currentTime) altTime = currentTime;
+                    if (repeat > 1 && !quest.getProperty(NativeProps.REPEAT_REL)) altTime -= (altTime % repeat);
+                    tmpReset.add(new QResetTime(questID, altTime + (repeat * 50)));
+                }
+
+                if (!quest.hasClaimed(uuid) && quest.getProperty(NativeProps.AUTO_CLAIM)) {
+                    tmpAutoClaim.add(questID);
+                }
+            }
+        }
+
+        if (isQuestShown(quest, uuid, player)) {
+            tmpVisible.add(questID);
+        }
+    }
+
     @Override
     public synchronized void saveNBTData(NBTTagCompound tags) {
 
@@ -203,6 +349,7 @@ public class QuestCache implements IExtendedEntityProperties {
         resetSchedule.clear();
         autoClaims.clear();
         markedDirty.clear();
+        taskIndex.clear();
 
         visibleQuests.addAll(NBTConverter.UuidValueType.QUEST.readIds(nbt, "visibleQuests"));
         activeQuests.addAll(NBTConverter.UuidValueType.QUEST.readIds(nbt, "activeQuests"));
@@ -241,6 +388,31 @@ public class QuestCache implements IExtendedEntityProperties {
         }
     }
 
+    public static final class ActiveTask<T> {
+
+        private final Map.Entry<UUID, IQuest> quest;
+        private final int taskID;
+        private final T task;
+
+        private ActiveTask(Map.Entry<UUID, IQuest> quest, int taskID, T task) {
+            this.quest = quest;
+            this.taskID = taskID;
+            this.task = task;
+        }
+
+        public Map.Entry<UUID, IQuest> getQuest() {
+            return quest;
+        }
+
+        public int getTaskID() {
+            return taskID;
+        }
+
+        public T getTask() {
+            return task;
+        }
+    }
+
     // TODO: Make this based on a fixed state stored on the quest instead of calculated on demand
     // TODO: Also make this thread safe
     public static boolean isQuestShown(IQuest quest, UUID uuid, EntityPlayer player) {
@@ -1,11 +1,9 @@
 package betterquesting.api2.client.gui.panels.lists;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import net.minecraft.entity.player.EntityPlayer;
 
@@ -15,7 +13,6 @@ import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.properties.NativeProps;
 import betterquesting.api.questing.IQuest;
 import betterquesting.api.questing.IQuestLine;
-import betterquesting.api.questing.IQuestLineEntry;
 import betterquesting.api2.cache.QuestCache;
 import betterquesting.api2.client.gui.controls.PanelButtonCustom;
 import betterquesting.api2.client.gui.controls.PanelButtonQuest;
@@ -33,7 +30,6 @@ import betterquesting.questing.QuestLineDatabase;
 
 public class CanvasQuestBookmarks extends CanvasScrolling {
 
-    private List<QuestSearchEntry> questList;
     private Consumer<QuestSearchEntry> questOpenCallback;
     private Consumer<QuestSearchEntry> questHighlightCallback;
     private static List<QuestSearchEntry> bookmarkedQuests;
@@ -62,38 +58,20 @@ public class CanvasQuestBookmarks extends CanvasScrolling {
     }
 
     protected List<QuestSearchEntry> getBookmarkedQuests() {
-        if (questList == null) {
-            questList = collectQuests();
+        // Only visit the lines holding a bookmarked quest instead of every line entry
+        List<QuestSearchEntry> list = new ArrayList<>();
+        for (UUID questId : BookmarkHandler.getBookmarks()) {
+            IQuest quest = QuestDatabase.INSTANCE.get(questId);
+            for (UUID lineId : QuestLineDatabase.INSTANCE.getLinesWithQuest(questId)) {
+                IQuestLine line = QuestLineDatabase.INSTANCE.get(lineId);
+                if (line == null) continue;
+                list.add(
+                    new QuestSearchEntry(
+                        Maps.immutableEntry(questId, quest),
+                        Maps.immutableEntry(lineId, line)));
+            }
         }
-        return questList.stream()
-            .filter(
-                e -> BookmarkHandler.isBookmarked(
-                    e.getQuest()
-                        .getKey()))
-            .sorted(
-                Comparator.comparing(
-                    e -> BookmarkHandler.getIndexOf(
-                        e.getQuest()
-                            .getKey())))
-            .collect(Collectors.toList());
-    }
-
-    private List<QuestSearchEntry> collectQuests() {
-        return QuestLineDatabase.INSTANCE.entrySet()
-            .stream()
-            .flatMap(
-                iQuestLineDBEntry -> iQuestLineDBEntry.getValue()
-                    .entrySet()
-                    .stream()
-                    .map(iQuestLineEntryDBEntry -> createQuestSearchEntry(iQuestLineEntryDBEntry, iQuestLineDBEntry)))
-            .collect(Collectors.toList());
-    }
-
-    private QuestSearchEntry createQuestSearchEntry(Map.Entry<UUID, IQuestLineEntry> iQuestLineEntryDBEntry,
-        Map.Entry<UUID, IQuestLine> iQuestLineDBEntry) {
-        UUID questId = iQuestLineEntryDBEntry.getKey();
-        Map.Entry<UUID, IQuest> quest = Maps.immutableEntry(questId, QuestDatabase.INSTANCE.get(questId));
-        return new QuestSearchEntry(quest, iQuestLineDBEntry);
+        return list;
     }
 
     public void setQuestHighlightCallback(Consumer<QuestSearchEntry> questHighlightCallback) {
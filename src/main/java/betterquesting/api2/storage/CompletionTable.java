@@ -0,0 +1,195 @@
+package betterquesting.api2.storage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+
+/**
+ * Compact user to (claimed, timestamp) table for quest completions. Entries live in parallel primitive arrays using
+ * open addressing on the UUID bits, so no per-user objects are kept. Not thread safe
+ */
+public class CompletionTable {
+
+    private static final byte USED = 1;
+    private static final byte CLAIMED = 2;
+
+    private long[] most = new long[0];
+    private long[] least = new long[0];
+    private long[] timestamps = new long[0];
+    private byte[] flags = new byte[0];
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(UUID uuid) {
+        return find(uuid) >= 0;
+    }
+
+    public boolean isClaimed(UUID uuid) {
+        int slot = find(uuid);
+        return slot >= 0 && (flags[slot] & CLAIMED) != 0;
+    }
+
+    public long getTimestamp(UUID uuid) {
+        int slot = find(uuid);
+        return slot < 0 ? 0L : timestamps[slot];
+    }
+
+    public boolean anyClaimed() {
+        for (byte flag : flags) {
+            if ((flag & CLAIMED) != 0) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Sets the entry for this user, returning true if the user had none before
+     */
+    public boolean put(UUID uuid, boolean claimed, long timestamp) {
+        if ((size + 1) * 4 > flags.length * 3) grow();
+
+        int slot = slotOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        boolean added = (flags[slot] & USED) == 0;
+
+        most[slot] = uuid.getMostSignificantBits();
+        least[slot] = uuid.getLeastSignificantBits();
+        timestamps[slot] = timestamp;
+        flags[slot] = (byte) (claimed ? USED | CLAIMED : USED);
+        if (added) size++;
+        return added;
+    }
+
+    /**
+     * Updates every existing entry
+     */
+    public void setAll(boolean claimed, long timestamp) {
+        for (int i = 0; i < flags.length; i++) {
+            if ((flags[i] & USED) == 0) continue;
+            timestamps[i] = timestamp;
+            flags[i] = (byte) (claimed ? USED | CLAIMED : USED);
+        }
+    }
+
+    public boolean remove(UUID uuid) {
+        int slot = find(uuid);
+        if (slot < 0) return false;
+
+        // Backward shift deletion keeps every probe chain intact without tombstones
+        int mask = flags.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+
+        while ((flags[next] & USED) != 0) {
+            int home = hash(most[next], least[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                most[gap] = most[next];
+                least[gap] = least[next];
+                timestamps[gap] = timestamps[next];
+                flags[gap] = flags[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        flags[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(flags, (byte) 0);
+        size = 0;
+    }
+
+    public void addKeysTo(Collection<UUID> target) {
+        for (int i = 0; i < flags.length; i++) {
+            if ((flags[i] & USED) != 0) target.add(new UUID(most[i], least[i]));
+        }
+    }
+
+    /**
+     * Materializes the entry as the legacy completion tag, or null if the user has none
+     */
+    @Nullable
+    public NBTTagCompound toNBT(UUID uuid) {
+        int slot = find(uuid);
+        return slot < 0 ? null : slotToNBT(slot, false);
+    }
+
+    /**
+     * Appends every entry to the list as completion tags carrying their "uuid"
+     */
+    public void writeAll(NBTTagList target) {
+        for (int i = 0; i < flags.length; i++) {
+            if ((flags[i] & USED) != 0) target.appendTag(slotToNBT(i, true));
+        }
+    }
+
+    private NBTTagCompound slotToNBT(int slot, boolean withUuid) {
+        NBTTagCompound tag = new NBTTagCompound();
+        if (withUuid) tag.setString("uuid", new UUID(most[slot], least[slot]).toString());
+        tag.setBoolean("claimed", (flags[slot] & CLAIMED) != 0);
+        tag.setLong("timestamp", timestamps[slot]);
+        return tag;
+    }
+
+    private int find(UUID uuid) {
+        if (uuid == null || size == 0) return -1;
+
+        int slot = slotOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return (flags[slot] & USED) == 0 ? -1 : slot;
+    }
+
+    // Returns the slot holding this key, or the empty slot it would go into
+    private int slotOf(long hi, long lo) {
+        int mask = flags.length - 1;
+        int slot = hash(hi, lo) & mask;
+
+        while ((flags[slot] & USED) != 0 && (most[slot] != hi || least[slot] != lo)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private static int hash(long hi, long lo) {
+        long h = hi ^ lo;
+        h ^= h >>> 32;
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    private void grow() {
+        long[] oldMost = most;
+        long[] oldLeast = least;
+        long[] oldTimes = timestamps;
+        byte[] oldFlags = flags;
+
+        int cap = Math.max(4, oldFlags.length * 2);
+        most = new long[cap];
+        least = new long[cap];
+        timestamps = new long[cap];
+        flags = new byte[cap];
+
+        for (int i = 0; i < oldFlags.length; i++) {
+            if ((oldFlags[i] & USED) == 0) continue;
+            int slot = slotOf(oldMost[i], oldLeast[i]);
+            most[slot] = oldMost[i];
+            least[slot] = oldLeast[i];
+            timestamps[slot] = oldTimes[i];
+            flags[slot] = oldFlags[i];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package betterquesting.api2.storage;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps a revision number per user that changes whenever that user's progress does, letting syncs skip progress the
+ * client already has. Revisions come from a single global counter so a value is never reused, even when the owning
+ * quest or task is replaced
+ */
+public class ProgressRevisions {
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private final Map<UUID, Long> revisions = new ConcurrentHashMap<>();
+    // Changes to every user at once only need a single entry
+    private volatile long allUsers = 0;
+
+    /**
+     * Marks the given user's progress as changed, or every user's if null
+     */
+    public void bump(@Nullable UUID uuid) {
+        if (uuid == null) {
+            revisions.clear();
+            allUsers = COUNTER.incrementAndGet();
+        } else {
+            revisions.put(uuid, COUNTER.incrementAndGet());
+        }
+    }
+
+    public long get(UUID uuid) {
+        Long rev = revisions.get(uuid);
+        return rev == null ? allUsers : Math.max(rev, allUsers);
+    }
+}
@@ -2,9 +2,15 @@ package betterquesting.api2.storage;
 
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
 
+/**
+ * Writes are synchronized on the database. Reads of single values, sizes and entry lists go through an immutable
+ * snapshot that is rebuilt lazily after a write, so sync threads reading a database never wait on the server thread
+ */
 public abstract class SimpleDatabase<T> implements IDatabase<T> {
 
     /**
@@ -25,6 +31,7 @@ public abstract class SimpleDatabase<T> implements IDatabase<T> {
     private final BitSet idMap = new BitSet();
     private LookupLogicType type = null;
     private LookupLogic<T> logic = null;
+    private volatile Snapshot<T> snapshot = null;
 
     private LookupLogic<T> getLookupLogic() {
         if (type != null) return logic;
@@ -34,7 +41,22 @@ public abstract class SimpleDatabase<T> implements IDatabase<T> {
         return logic;
     }
 
+    private Snapshot<T> getSnapshot() {
+        Snapshot<T> snap = snapshot;
+        if (snap != null) return snap;
+
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = new Snapshot<>(
+                    mapDB.isEmpty() ? Collections.emptyList() : getLookupLogic().getRefCache(),
+                    new HashMap<>(mapDB));
+            }
+            return snapshot;
+        }
+    }
+
     private void updateLookupLogic() {
+        snapshot = null;
         if (type == null) return;
         LookupLogicType newType = LookupLogicType.determine(this);
         if (newType != type) {
@@ -86,7 +108,7 @@ public abstract class SimpleDatabase<T> implements IDatabase<T> {
     }
 
     @Override
-    public synchronized int getID(T value) {
+    public int getID(T value) {
         if (value == null) return -1;
 
         for (DBEntry<T> entry : getEntries()) {
@@ -97,14 +119,14 @@ public abstract class SimpleDatabase<T> implements IDatabase<T> {
     }
 
     @Override
-    public synchronized T getValue(int id) {
-        if (id < 0 || mapDB.size() <= 0) return null;
-        return mapDB.get(id);
+    public T getValue(int id) {
+        if (id < 0) return null;
+        return getSnapshot().values.get(id);
     }
 
     @Override
-    public synchronized int size() {
-        return mapDB.size();
+    public int size() {
+        return getSnapshot().values.size();
     }
 
     @Override
@@ -113,11 +135,12 @@ public abstract class SimpleDatabase<T> implements IDatabase<T> {
         idMap.clear();
         type = null;
         logic = null;
+        snapshot = null;
     }
 
     @Override
-    public synchronized List<DBEntry<T>> getEntries() {
-        return mapDB.isEmpty() ? Collections.emptyList() : getLookupLogic().getRefCache();
+    public List<DBEntry<T>> getEntries() {
+        return getSnapshot().entries;
     }
 
     /**
@@ -129,4 +152,15 @@ public abstract class SimpleDatabase<T> implements IDatabase<T> {
     public synchronized List<DBEntry<T>> bulkLookup(int... keys) {
         return mapDB.isEmpty() || keys.length == 0 ? Collections.emptyList() : getLookupLogic().bulkLookup(keys);
     }
+
+    private static final class Snapshot<T> {
+
+        private final List<DBEntry<T>> entries;
+        private final Map<Integer, T> values;
+
+        private Snapshot(List<DBEntry<T>> entries, Map<Integer, T> values) {
+            this.entries = entries;
+            this.values = values;
+        }
+    }
 }
@@ -1,8 +1,12 @@
 package betterquesting.api2.storage;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
@@ -17,15 +21,21 @@ import com.google.common.collect.Maps;
 
 import betterquesting.api.utils.UuidConverter;
 
-/** Database that uses randomly-generated UUIDs as keys. */
+/**
+ * Database that uses randomly-generated UUIDs as keys.
+ * <p>
+ * Writes are serialized on the backing map. Reads go through an immutable snapshot that is published after the first
+ * read following a write, so sync threads can read while the server thread edits quests. Until the snapshot is
+ * rebuilt, single key reads fall back to the backing map under its lock. The map views are snapshots too and can't be
+ * written through.
+ */
 public class UuidDatabase<T> implements IUuidDatabase<T> {
 
     private final HashBiMap<UUID, T> database = HashBiMap.create();
+    // Keys in the same order as their encoded strings, kept up to date by the mutators below
+    private final TreeSet<UUID> orderedKeys = new TreeSet<>(UuidConverter::compareEncoded);
 
-    private int compareEntries(Map.Entry<UUID, T> e1, Map.Entry<UUID, T> e2) {
-        return UuidConverter.encodeUuid(e1.getKey())
-            .compareTo(UuidConverter.encodeUuid(e2.getKey()));
-    }
+    private volatile Snapshot<T> snapshot = null;
 
     @Override
     public UUID generateKey() {
@@ -39,118 +49,241 @@ public class UuidDatabase<T> implements IUuidDatabase<T> {
     @Override
     @Nullable
     public UUID lookupKey(T value) {
-        return inverse().get(value);
+        Snapshot<T> snap = snapshot;
+        if (snap != null) {
+            return snap.map.inverse()
+                .get(value);
+        }
+
+        synchronized (database) {
+            return database.inverse()
+                .get(value);
+        }
     }
 
     @Override
     public Stream<Map.Entry<UUID, T>> orderedEntries() {
-        return entrySet().stream()
-            .sorted(this::compareEntries);
+        return getSnapshot().ordered.stream();
     }
 
     @Override
     public Stream<T> getAll(Collection<UUID> keys) {
+        BiMap<UUID, T> map = getSnapshot().map;
         return keys.stream()
             .distinct()
-            .filter(database::containsKey)
-            .map(database::get);
+            .filter(map::containsKey)
+            .map(map::get);
     }
 
     @Override
     public Map<UUID, T> filterKeys(Collection<UUID> keys) {
+        BiMap<UUID, T> map = getSnapshot().map;
         return keys.stream()
             .distinct()
-            .filter(database::containsKey)
-            .collect(Collectors.toMap(Function.identity(), database::get));
+            .filter(map::containsKey)
+            .collect(Collectors.toMap(Function.identity(), map::get));
     }
 
     @Override
     public BiMap<UUID, T> filterValues(Collection<T> values) {
-        return Maps.filterValues(database, values::contains);
+        return Maps.filterValues(getSnapshot().map, values::contains);
     }
 
     @Override
     public BiMap<UUID, T> filterEntries(BiPredicate<UUID, T> filter) {
-        return Maps.filterEntries(database, entry -> filter.test(entry.getKey(), entry.getValue()));
+        return Maps.filterEntries(getSnapshot().map, entry -> filter.test(entry.getKey(), entry.getValue()));
     }
 
     @Override
     @Nullable
     public UUID removeValue(T value) {
-        return inverse().remove(value);
+        synchronized (database) {
+            UUID key = database.inverse()
+                .remove(value);
+            if (key != null) {
+                orderedKeys.remove(key);
+                snapshot = null;
+            }
+            return key;
+        }
     }
 
     @Override
     public int size() {
-        return database.size();
+        Snapshot<T> snap = snapshot;
+        if (snap != null) return snap.map.size();
+
+        synchronized (database) {
+            return database.size();
+        }
     }
 
     @Override
     public boolean isEmpty() {
-        return database.isEmpty();
+        return size() == 0;
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return database.containsKey(key);
+        Snapshot<T> snap = snapshot;
+        if (snap != null) return snap.map.containsKey(key);
+
+        synchronized (database) {
+            return database.containsKey(key);
+        }
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return database.containsValue(value);
+        Snapshot<T> snap = snapshot;
+        if (snap != null) return snap.map.containsValue(value);
+
+        synchronized (database) {
+            return database.containsValue(value);
+        }
     }
 
     @Override
     @Nullable
     public T get(Object key) {
-        return database.get(key);
+        Snapshot<T> snap = snapshot;
+        if (snap != null) return snap.map.get(key);
+
+        synchronized (database) {
+            return database.get(key);
+        }
     }
 
     @Override
     @Nullable
     public T put(@Nullable UUID key, @Nullable T value) {
-        return database.put(key, value);
+        synchronized (database) {
+            T prev = database.put(key, value);
+            if (key != null) orderedKeys.add(key);
+            snapshot = null;
+            return prev;
+        }
     }
 
     @Override
     @Nullable
     public T remove(Object key) {
-        return database.remove(key);
+        synchronized (database) {
+            T removed = database.remove(key);
+            if (removed != null) {
+                orderedKeys.remove(key);
+                snapshot = null;
+            }
+            return removed;
+        }
     }
 
     @Override
     @Nullable
     public T forcePut(@Nullable UUID key, @Nullable T value) {
-        return database.forcePut(key, value);
+        synchronized (database) {
+            // Any other key already holding this value is dropped by the bimap
+            UUID prevKey = database.inverse()
+                .get(value);
+            T prev = database.forcePut(key, value);
+            if (prevKey != null) orderedKeys.remove(prevKey);
+            if (key != null) orderedKeys.add(key);
+            snapshot = null;
+            return prev;
+        }
     }
 
     @Override
     public void putAll(Map<? extends UUID, ? extends T> map) {
-        database.putAll(map);
+        synchronized (database) {
+            database.putAll(map);
+            map.keySet()
+                .forEach(key -> {
+                    if (key != null) orderedKeys.add(key);
+                });
+            snapshot = null;
+        }
     }
 
     @Override
     public void clear() {
-        database.clear();
+        synchronized (database) {
+            database.clear();
+            orderedKeys.clear();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Replaces every entry in one step. Readers see either the old or the new contents, never an empty or partly filled
+     * database in between
+     */
+    public void replaceAll(Map<? extends UUID, ? extends T> map) {
+        // Built up front so a duplicate value fails before anything is changed
+        HashBiMap<UUID, T> replacement = HashBiMap.create(map);
+
+        synchronized (database) {
+            database.clear();
+            database.putAll(replacement);
+            orderedKeys.clear();
+            replacement.keySet()
+                .forEach(key -> {
+                    if (key != null) orderedKeys.add(key);
+                });
+            // Published straight away, the previous snapshot stays readable until this point
+            snapshot = createSnapshot();
+        }
     }
 
     @Override
     public Set<UUID> keySet() {
-        return database.keySet();
+        return getSnapshot().map.keySet();
     }
 
     @Override
     public Set<T> values() {
-        return database.values();
+        return getSnapshot().map.values();
     }
 
     @Override
     public Set<Map.Entry<UUID, T>> entrySet() {
-        return database.entrySet();
+        return getSnapshot().map.entrySet();
     }
 
     @Override
     public BiMap<T, UUID> inverse() {
-        return database.inverse();
+        return getSnapshot().map.inverse();
+    }
+
+    private Snapshot<T> getSnapshot() {
+        Snapshot<T> snap = snapshot;
+        if (snap != null) return snap;
+
+        synchronized (database) {
+            if (snapshot == null) snapshot = createSnapshot();
+            return snapshot;
+        }
+    }
+
+    // Must hold the lock on database
+    private Snapshot<T> createSnapshot() {
+        List<Map.Entry<UUID, T>> ordered = new ArrayList<>(orderedKeys.size());
+        for (UUID key : orderedKeys) {
+            ordered.add(Maps.immutableEntry(key, database.get(key)));
+        }
+        return new Snapshot<>(
+            Maps.unmodifiableBiMap(HashBiMap.create(database)),
+            Collections.unmodifiableList(ordered));
+    }
+
+    private static final class Snapshot<T> {
+
+        private final BiMap<UUID, T> map;
+        private final List<Map.Entry<UUID, T>> ordered;
+
+        private Snapshot(BiMap<UUID, T> map, List<Map.Entry<UUID, T>> ordered) {
+            this.map = map;
+            this.ordered = ordered;
+        }
     }
 }
@@ -1,32 +1,110 @@
 package betterquesting.api2.utils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import betterquesting.api.api.QuestingAPI;
+import betterquesting.api.storage.BQ_Settings;
 
 public class BQThreadedIO {
 
-    public static final BQThreadedIO INSTANCE = new BQThreadedIO();
-    public static final BQThreadedIO DISK_IO = new BQThreadedIO() {
+    // Single threaded so packets to the same player stay in the order they were queued. Sends come from the server
+    // thread, so a full queue drops them rather than stalling the tick. Running one on the caller could overtake older
+    // queued packets instead. PacketSender resyncs the players of a dropped send once the queue has drained
+    public static final BQThreadedIO NETWORK_ENCODE = new BQThreadedIO("network-encode", 1, OverflowPolicy.ABORT);
+    // Saves are never dropped, a full queue always falls back to the caller
+    public static final BQThreadedIO DISK_WRITE = new BQThreadedIO("disk-write", 4, OverflowPolicy.CALLER_RUNS);
+    // Every read is waited on anyway, so running it on the caller costs nothing. Dropping one would load an empty file
+    public static final BQThreadedIO DISK_READ = new BQThreadedIO("disk-read", 2, OverflowPolicy.CALLER_RUNS);
 
-        @Override
-        public void init() {
-            if (exService == null || exService.isShutdown()) {
-                exService = Executors.newFixedThreadPool(4);
-            }
-        }
-    };
+    /**
+     * @deprecated Use {@link #NETWORK_ENCODE} or {@link #DISK_READ}
+     */
+    @Deprecated
+    public static final BQThreadedIO INSTANCE = NETWORK_ENCODE;
+    /**
+     * @deprecated Use {@link #DISK_WRITE}
+     */
+    @Deprecated
+    public static final BQThreadedIO DISK_IO = DISK_WRITE;
+
+    private static final List<BQThreadedIO> ALL = Collections
+        .unmodifiableList(Arrays.asList(NETWORK_ENCODE, DISK_WRITE, DISK_READ));
+
+    /**
+     * What to do with a job when the executor's queue is already full
+     */
+    public enum OverflowPolicy {
+        // Run the job on the thread that submitted it, slowing the producer down
+        CALLER_RUNS,
+        // Drop the job. Futures of dropped jobs fail with a RejectedExecutionException
+        ABORT
+    }
+
+    private final String name;
+    private final int threads;
+    private final OverflowPolicy overflow;
+    private final ThreadLocal<Boolean> isWorker = new ThreadLocal<>();
 
-    ExecutorService exService;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+
+    ThreadPoolExecutor exService;
 
     public BQThreadedIO() {
+        this("custom", 1, OverflowPolicy.CALLER_RUNS);
+    }
+
+    /**
+     * @param overflow What to do once the queue is full. Only use ABORT for jobs that are safe to lose or that the
+     *                 submitter resends itself
+     */
+    public BQThreadedIO(String name, int threads, OverflowPolicy overflow) {
+        this.name = name;
+        this.threads = threads;
+        this.overflow = overflow;
         this.init();
     }
 
+    public static List<BQThreadedIO> getAll() {
+        return ALL;
+    }
+
     public void init() {
         if (exService == null || exService.isShutdown()) {
-            exService = Executors.newSingleThreadExecutor();
+            AtomicInteger count = new AtomicInteger();
+            // The queue itself is unbounded, the configured limit is enforced in submit() so it can change at runtime
+            exService = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(() -> {
+                        isWorker.set(true);
+                        r.run();
+                    }, "BQ " + name + " #" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
         }
     }
 
@@ -35,22 +113,156 @@ public class BQThreadedIO {
     }
 
     public void enqueue(Runnable job) {
-        if (exService == null || exService.isShutdown()) {
-            throw new RuntimeException("Attempted to schedule task before service was initialised!");
-        } else if (job == null) {
+        offer(job);
+    }
+
+    /**
+     * Same as {@link #enqueue(Runnable)} but reports whether the job was taken
+     *
+     * @return false if the queue was full and the job was dropped
+     */
+    public boolean offer(Runnable job) {
+        if (job == null) {
             throw new NullPointerException("Attempted to schedule null job!");
         }
 
-        exService.submit(job);
+        return submit(new FutureTask<>(job, null)) != null;
     }
 
     public <T> Future<T> enqueue(Callable<T> job) {
+        if (job == null) {
+            throw new NullPointerException("Attempted to schedule null job!");
+        }
+
+        FutureTask<T> task = submit(new FutureTask<>(job));
+        if (task == null) {
+            task = new FutureTask<>(() -> {
+                throw new RejectedExecutionException("BQ " + name + " queue is full");
+            });
+            task.run();
+        }
+        return task;
+    }
+
+    /**
+     * @return The submitted task, or null if it was dropped
+     */
+    @Nullable
+    private <T> FutureTask<T> submit(FutureTask<T> task) {
         if (exService == null || exService.isShutdown()) {
             throw new RuntimeException("Attempted to schedule task before service was initialised!");
-        } else if (job == null) {
-            throw new NullPointerException("Attempted to schedule null job!");
         }
 
-        return exService.submit(job);
+        submitted.incrementAndGet();
+
+        // Jobs queued from one of our own workers run in place. Waiting on them here could otherwise deadlock the pool
+        if (isWorkerThread()) {
+            callerRuns.incrementAndGet();
+            runTimed(task, System.nanoTime());
+            return task;
+        }
+
+        if (isFull()) {
+            if (overflow == OverflowPolicy.ABORT) {
+                QuestingAPI.getLogger()
+                    .warn(
+                        "BQ {} queue is full ({}), dropped job #{}",
+                        name,
+                        BQ_Settings.ioQueueLimit,
+                        rejected.incrementAndGet());
+                return null;
+            }
+
+            callerRuns.incrementAndGet();
+            runTimed(task, System.nanoTime());
+            return task;
+        }
+
+        final long queued = System.nanoTime();
+        exService.execute(() -> runTimed(task, queued));
+        return task;
+    }
+
+    private boolean isFull() {
+        return exService.getQueue()
+            .size() >= BQ_Settings.ioQueueLimit;
+    }
+
+    private void runTimed(FutureTask<?> task, long queued) {
+        long start = System.nanoTime();
+        long wait = start - queued;
+        totalWaitNanos.addAndGet(wait);
+
+        long max;
+        do {
+            max = maxWaitNanos.get();
+        } while (wait > max && !maxWaitNanos.compareAndSet(max, wait));
+
+        try {
+            task.run();
+        } finally {
+            totalRunNanos.addAndGet(System.nanoTime() - start);
+            completed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Whether the calling thread is one of this executor's workers
+     */
+    public boolean isWorkerThread() {
+        return Boolean.TRUE.equals(isWorker.get());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return exService.getQueue()
+            .size();
+    }
+
+    public int getActiveCount() {
+        return exService.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRuns.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long done = completed.get();
+        return done <= 0 ? 0D : totalWaitNanos.get() / (done * 1000000D);
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1000000D;
+    }
+
+    public double getAverageRunMillis() {
+        long done = completed.get();
+        return done <= 0 ? 0D : totalRunNanos.get() / (done * 1000000D);
+    }
+
+    public void resetStats() {
+        submitted.set(0);
+        completed.set(0);
+        rejected.set(0);
+        callerRuns.set(0);
+        totalWaitNanos.set(0);
+        maxWaitNanos.set(0);
+        totalRunNanos.set(0);
     }
 }
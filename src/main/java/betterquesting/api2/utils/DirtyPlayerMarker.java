@@ -1,19 +1,124 @@
 package betterquesting.api2.utils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.minecraftforge.common.MinecraftForge;
 
+import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.events.MarkDirtyPlayerEvent;
+import cpw.mods.fml.common.eventhandler.EventBus;
+import cpw.mods.fml.common.eventhandler.ListenerList;
+import cpw.mods.fml.relauncher.ReflectionHelper;
 
+/**
+ * Tracks players whose progress changed since the last save. Marking is a plain concurrent set insert, the
+ * {@link MarkDirtyPlayerEvent} is only posted for other mods that listen to it, once per tick with every player marked
+ * during that tick
+ */
 public class DirtyPlayerMarker {
 
+    private static final Set<UUID> dirty = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // Players marked since the last event post. Only filled while someone listens for the event
+    private static final Set<UUID> pendingEvent = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    // Set by every mark, so ticks where nothing was marked skip the listener lookup entirely
+    private static volatile boolean marked = false;
+    private static volatile boolean hasListeners = true;
+    private static int busID = -1;
+    private static ListenerList listeners = null;
+    private static boolean lookupFailed = false;
+
     public static void markDirty(Collection<UUID> players) {
-        MinecraftForge.EVENT_BUS.post(new MarkDirtyPlayerEvent(players));
+        if (players.isEmpty()) return;
+        dirty.addAll(players);
+        if (hasListeners) pendingEvent.addAll(players);
+        marked = true;
+    }
+
+    public static void markDirty(UUID... players) {
+        for (UUID player : players) markDirty(player);
     }
 
     public static void markDirty(UUID player) {
-        MinecraftForge.EVENT_BUS.post(new MarkDirtyPlayerEvent(player));
+        if (player == null) return;
+        dirty.add(player);
+        if (hasListeners) pendingEvent.add(player);
+        marked = true;
+    }
+
+    public static boolean isDirty(UUID player) {
+        return dirty.contains(player);
+    }
+
+    /**
+     * Live read-only view of every player waiting to be saved
+     */
+    public static Set<UUID> getDirty() {
+        return Collections.unmodifiableSet(dirty);
+    }
+
+    /**
+     * Removes and returns the players waiting to be saved. Players marked while this runs are either returned or left
+     * for the next call, never lost
+     */
+    public static List<UUID> drain() {
+        List<UUID> drained = new ArrayList<>(dirty.size());
+        for (UUID player : dirty) {
+            if (dirty.remove(player)) drained.add(player);
+        }
+        return drained;
+    }
+
+    public static void clear() {
+        dirty.clear();
+        pendingEvent.clear();
+        marked = false;
+    }
+
+    /**
+     * Posts the players marked during this tick to external listeners. Called once per server tick
+     */
+    public static void flushEvent() {
+        if (!marked) return;
+        // Cleared before draining, players marked from here on set it again and wait for the next tick
+        marked = false;
+
+        hasListeners = checkListeners();
+        if (!hasListeners) {
+            pendingEvent.clear();
+            return;
+        }
+        if (pendingEvent.isEmpty()) return;
+
+        List<UUID> players = new ArrayList<>(pendingEvent.size());
+        for (UUID player : pendingEvent) {
+            if (pendingEvent.remove(player)) players.add(player);
+        }
+
+        MinecraftForge.EVENT_BUS.post(new MarkDirtyPlayerEvent(players));
+    }
+
+    private static boolean checkListeners() {
+        // Can't tell, so keep posting to be safe
+        if (lookupFailed) return true;
+
+        try {
+            if (listeners == null) {
+                busID = ReflectionHelper.getPrivateValue(EventBus.class, MinecraftForge.EVENT_BUS, "busID");
+                listeners = new MarkDirtyPlayerEvent(Collections.emptySet()).getListenerList();
+            }
+            return listeners.getListeners(busID).length > 0;
+        } catch (Exception e) {
+            QuestingAPI.getLogger()
+                .warn("Unable to look up MarkDirtyPlayerEvent listeners", e);
+            lookupFailed = true;
+            return true;
+        }
     }
 }
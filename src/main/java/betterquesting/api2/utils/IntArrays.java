@@ -0,0 +1,49 @@
+package betterquesting.api2.utils;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Helpers for the small ascending index arrays used by lookup tables such as {@link ItemRequirementMatcher}
+ */
+public final class IntArrays {
+
+    private IntArrays() {}
+
+    /**
+     * Returns a copy of the array with the value added at the end, or a single entry array if there was none
+     */
+    @Nonnull
+    public static int[] append(@Nullable int[] array, int value) {
+        if (array == null) return new int[] { value };
+        int[] grown = Arrays.copyOf(array, array.length + 1);
+        grown[array.length] = value;
+        return grown;
+    }
+
+    /**
+     * Union of two ascending arrays. Returns b itself if a is null
+     */
+    @Nonnull
+    public static int[] merge(@Nullable int[] a, @Nonnull int[] b) {
+        if (a == null) return b;
+
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+}
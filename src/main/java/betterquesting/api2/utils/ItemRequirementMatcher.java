@@ -0,0 +1,157 @@
+package betterquesting.api2.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import betterquesting.api.utils.BigItemStack;
+import betterquesting.api.utils.ItemComparison;
+
+/**
+ * Requirement list compiled down to Item and ore ID lookups. Matches the same stacks as
+ * {@link ItemComparison#StackMatch} or {@link ItemComparison#OreDictionaryMatch} against each requirement, but a stack
+ * is only compared with the requirements that share its item or one of its ore IDs, and the ore check is a lookup
+ * instead of a scan over every ore entry.
+ * <p>
+ * Ore IDs of the candidate stack are looked up live, so ore registrations made after compiling are picked up.
+ */
+public final class ItemRequirementMatcher {
+
+    private static final int[] NONE = new int[0];
+
+    private final BigItemStack[] reqs;
+    // Item and ore name of every requirement at compile time, used to detect in place edits
+    private final Item[] items;
+    private final String[] oreNames;
+    private final int[] oreIDs;
+    // Compiled on first NBT check of each requirement
+    private final NBTPredicate[] tagPredicates;
+
+    private final Map<Item, int[]> byItem = new HashMap<>();
+    private final Map<Integer, int[]> byOre = new HashMap<>();
+
+    private ItemRequirementMatcher(List<BigItemStack> requirements) {
+        int size = requirements.size();
+        reqs = requirements.toArray(new BigItemStack[size]);
+        items = new Item[size];
+        oreNames = new String[size];
+        oreIDs = new int[size];
+        tagPredicates = new NBTPredicate[size];
+
+        for (int i = 0; i < size; i++) {
+            BigItemStack req = reqs[i];
+            items[i] = req.getBaseStack()
+                .getItem();
+            oreNames[i] = req.getOreDict();
+            oreIDs[i] = oreNames[i].isEmpty() ? -1 : OreDictionary.getOreID(oreNames[i]);
+
+            if (items[i] != null) byItem.put(items[i], IntArrays.append(byItem.get(items[i]), i));
+            if (oreIDs[i] >= 0) byOre.put(oreIDs[i], IntArrays.append(byOre.get(oreIDs[i]), i));
+        }
+    }
+
+    @Nonnull
+    public static ItemRequirementMatcher compile(@Nonnull List<BigItemStack> requirements) {
+        return new ItemRequirementMatcher(requirements);
+    }
+
+    /**
+     * Returns the given matcher if it still describes the requirements, otherwise compiles a new one
+     */
+    @Nonnull
+    public static ItemRequirementMatcher update(@Nullable ItemRequirementMatcher matcher,
+        @Nonnull List<BigItemStack> requirements) {
+        return matcher != null && matcher.isCurrent(requirements) ? matcher : compile(requirements);
+    }
+
+    /**
+     * Whether the requirement list is still the one this was compiled from. Catches list edits as well as items or ore
+     * names changed in place
+     */
+    public boolean isCurrent(@Nonnull List<BigItemStack> requirements) {
+        if (requirements.size() != reqs.length) return false;
+
+        for (int i = 0; i < reqs.length; i++) {
+            BigItemStack req = requirements.get(i);
+            Item item = req.getBaseStack()
+                .getItem();
+            if (req != reqs[i] || item != items[i] || !oreNames[i].equals(req.getOreDict())) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Indices of every requirement the stack satisfies, in ascending order
+     */
+    @Nonnull
+    public int[] match(@Nullable ItemStack stack, boolean nbtCheck, boolean partialNBT) {
+        if (stack == null || stack.getItem() == null) return NONE;
+
+        int[] candidates = byItem.get(stack.getItem());
+        int[] stackOres = byOre.isEmpty() ? NONE : OreDictionary.getOreIDs(stack);
+
+        for (int ore : stackOres) {
+            int[] oreCandidates = byOre.get(ore);
+            if (oreCandidates != null) candidates = IntArrays.merge(candidates, oreCandidates);
+        }
+
+        if (candidates == null) return NONE;
+
+        int[] matched = new int[candidates.length];
+        int count = 0;
+
+        for (int i : candidates) {
+            if (matches(i, stack, stackOres, nbtCheck, partialNBT)) matched[count++] = i;
+        }
+
+        return count == matched.length ? matched : Arrays.copyOf(matched, count);
+    }
+
+    /**
+     * Whether the stack satisfies the requirement at the given index
+     */
+    public boolean matches(int index, @Nullable ItemStack stack, boolean nbtCheck, boolean partialNBT) {
+        if (stack == null || stack.getItem() == null) return false;
+        return matches(index, stack, oreIDs[index] < 0 ? NONE : OreDictionary.getOreIDs(stack), nbtCheck, partialNBT);
+    }
+
+    private boolean matches(int index, ItemStack stack, int[] stackOres, boolean nbtCheck, boolean partialNBT) {
+        ItemStack base = reqs[index].getBaseStack();
+        Item item = stack.getItem();
+
+        if (base.getItem() == item) {
+            int damage = base.getItemDamage();
+            boolean damageMatch = damage == stack.getItemDamage() || item.isDamageable()
+                || damage == OreDictionary.WILDCARD_VALUE;
+            if (damageMatch && (!nbtCheck || tagPredicate(index, base, partialNBT).test(stack.getTagCompound()))) {
+                return true;
+            }
+        }
+
+        // Same argument order as OreDictionaryMatch, the sample's tags are checked against the requirement
+        return oreIDs[index] >= 0 && contains(stackOres, oreIDs[index])
+            && (!nbtCheck || ItemComparison
+                .CompareNBTTag(stack.getTagCompound(), reqs[index].GetTagCompound(), partialNBT));
+    }
+
+    private NBTPredicate tagPredicate(int index, ItemStack base, boolean partialNBT) {
+        tagPredicates[index] = NBTPredicate.update(tagPredicates[index], base.getTagCompound(), partialNBT);
+        return tagPredicates[index];
+    }
+
+    private static boolean contains(int[] array, int value) {
+        for (int i : array) {
+            if (i == value) return true;
+        }
+        return false;
+    }
+}
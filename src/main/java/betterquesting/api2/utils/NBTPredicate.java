@@ -0,0 +1,284 @@
+package betterquesting.api2.utils;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTBase.NBTPrimitive;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.common.util.Constants;
+
+import betterquesting.api.utils.ItemComparison;
+
+/**
+ * A required tag compiled ahead of time into a tree of checks. {@link #test} gives the same result as
+ * {@link ItemComparison#CompareNBTTag}(required, sample, partial) without walking the required tag again, boxing
+ * numbers or scanning for used array indices.
+ * <p>
+ * The required tag is read once when compiling. Tags edited in place afterwards are not picked up, assign a new tag or
+ * compile again.
+ */
+public final class NBTPredicate {
+
+    private final NBTBase source;
+    private final boolean partial;
+    private final Node root;
+
+    private NBTPredicate(@Nullable NBTBase source, boolean partial) {
+        this.source = source;
+        this.partial = partial;
+        this.root = compileNode(source, partial);
+    }
+
+    @Nonnull
+    public static NBTPredicate compile(@Nullable NBTBase required, boolean partial) {
+        return new NBTPredicate(required, partial);
+    }
+
+    /**
+     * Returns the given predicate if it was compiled from this exact tag instance, otherwise compiles a new one
+     */
+    @Nonnull
+    public static NBTPredicate update(@Nullable NBTPredicate predicate, @Nullable NBTBase required, boolean partial) {
+        return predicate != null && predicate.source == required && predicate.partial == partial ? predicate
+            : compile(required, partial);
+    }
+
+    public boolean test(@Nullable NBTBase sample) {
+        return root.test(sample);
+    }
+
+    private static boolean isEmpty(NBTBase tag) {
+        return tag == null || (tag instanceof NBTTagCompound && ((NBTTagCompound) tag).hasNoTags())
+            || (tag instanceof NBTTagList && ((NBTTagList) tag).tagCount() == 0);
+    }
+
+    private static boolean isFloating(NBTBase tag) {
+        return tag.getId() == Constants.NBT.TAG_FLOAT || tag.getId() == Constants.NBT.TAG_DOUBLE;
+    }
+
+    private static Node compileNode(NBTBase req, boolean partial) {
+        if (isEmpty(req)) return EMPTY;
+
+        if (req instanceof NBTTagCompound) {
+            return new CompoundNode((NBTTagCompound) req, partial);
+        } else if (req instanceof NBTTagList) {
+            return new ListNode((NBTTagList) req, partial);
+        } else if (req instanceof NBTTagIntArray) {
+            return new IntArrayNode(((NBTTagIntArray) req).func_150302_c(), partial);
+        } else if (req instanceof NBTTagByteArray) {
+            return new ByteArrayNode(((NBTTagByteArray) req).func_150292_c(), partial);
+        } else if (req instanceof NBTPrimitive) {
+            return new NumberNode((NBTPrimitive) req);
+        } else {
+            // Strings and anything else compare with equals
+            return new EqualsNode(req.copy());
+        }
+    }
+
+    private static final Node EMPTY = new Node((byte) 0) {
+
+        @Override
+        public boolean test(NBTBase sample) {
+            return isEmpty(sample);
+        }
+
+        @Override
+        protected boolean testTyped(NBTBase sample) {
+            return true;
+        }
+    };
+
+    private abstract static class Node {
+
+        private final byte id;
+
+        private Node(byte id) {
+            this.id = id;
+        }
+
+        public boolean test(NBTBase sample) {
+            // The required tag is never empty here
+            if (isEmpty(sample)) return false;
+            if (sample.getId() != id && !(this instanceof NumberNode && sample instanceof NBTPrimitive)) return false;
+            return testTyped(sample);
+        }
+
+        /**
+         * Sample is non empty and of a compatible type
+         */
+        protected abstract boolean testTyped(NBTBase sample);
+    }
+
+    private static final class CompoundNode extends Node {
+
+        private final String[] keys;
+        private final Node[] values;
+
+        @SuppressWarnings("unchecked")
+        private CompoundNode(NBTTagCompound req, boolean partial) {
+            super(req.getId());
+            Set<String> keySet = (Set<String>) req.func_150296_c();
+            keys = keySet.toArray(new String[0]);
+            values = new Node[keys.length];
+            for (int i = 0; i < keys.length; i++) values[i] = compileNode(req.getTag(keys[i]), partial);
+        }
+
+        @Override
+        protected boolean testTyped(NBTBase sample) {
+            NBTTagCompound tags = (NBTTagCompound) sample;
+
+            // Missing keys are the cheapest way to fail, so check them all before comparing any values
+            for (String key : keys) {
+                if (!tags.hasKey(key)) return false;
+            }
+
+            for (int i = 0; i < keys.length; i++) {
+                if (!values[i].test(tags.getTag(keys[i]))) return false;
+            }
+
+            return true;
+        }
+    }
+
+    private static final class ListNode extends Node {
+
+        private final boolean partial;
+        // Only compound entries are compared, anything else reads as an empty compound like getCompoundTagAt does
+        private final Node[] entries;
+
+        private ListNode(NBTTagList req, boolean partial) {
+            super(req.getId());
+            this.partial = partial;
+            entries = new Node[req.tagCount()];
+            boolean compounds = req.func_150303_d() == Constants.NBT.TAG_COMPOUND;
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = compounds ? compileNode(req.getCompoundTagAt(i), partial) : EMPTY;
+            }
+        }
+
+        @Override
+        protected boolean testTyped(NBTBase sample) {
+            NBTTagList list = (NBTTagList) sample;
+            int count = list.tagCount();
+            if (entries.length > count || (!partial && entries.length != count)) return false;
+
+            boolean compounds = list.func_150303_d() == Constants.NBT.TAG_COMPOUND;
+
+            outer: for (Node entry : entries) {
+                for (int j = 0; j < count; j++) {
+                    if (entry.test(compounds ? list.getCompoundTagAt(j) : null)) continue outer;
+                }
+                return false;
+            }
+
+            return true;
+        }
+    }
+
+    // Every required value has to be matched by a distinct sample value, i.e. the sample must contain the required
+    // values as a multiset. Both sides are sorted and walked once instead of searching for unused indices
+    private static final class IntArrayNode extends Node {
+
+        private final boolean partial;
+        private final int[] sorted;
+
+        private IntArrayNode(int[] req, boolean partial) {
+            super((byte) Constants.NBT.TAG_INT_ARRAY);
+            this.partial = partial;
+            sorted = req.clone();
+            Arrays.sort(sorted);
+        }
+
+        @Override
+        protected boolean testTyped(NBTBase sample) {
+            int[] values = ((NBTTagIntArray) sample).func_150302_c();
+            if (sorted.length > values.length || (!partial && sorted.length != values.length)) return false;
+
+            values = values.clone();
+            Arrays.sort(values);
+
+            int j = 0;
+            for (int value : sorted) {
+                while (j < values.length && values[j] < value) j++;
+                if (j >= values.length || values[j] != value) return false;
+                j++;
+            }
+
+            return true;
+        }
+    }
+
+    private static final class ByteArrayNode extends Node {
+
+        private final boolean partial;
+        // Occurrences of every byte value
+        private final int[] counts = new int[256];
+        private final int length;
+
+        private ByteArrayNode(byte[] req, boolean partial) {
+            super((byte) Constants.NBT.TAG_BYTE_ARRAY);
+            this.partial = partial;
+            this.length = req.length;
+            for (byte b : req) counts[b & 0xFF]++;
+        }
+
+        @Override
+        protected boolean testTyped(NBTBase sample) {
+            byte[] values = ((NBTTagByteArray) sample).func_150292_c();
+            if (length > values.length || (!partial && length != values.length)) return false;
+
+            int[] available = new int[256];
+            for (byte b : values) available[b & 0xFF]++;
+
+            for (int i = 0; i < 256; i++) {
+                if (counts[i] > available[i]) return false;
+            }
+
+            return true;
+        }
+    }
+
+    private static final class NumberNode extends Node {
+
+        private final boolean floating;
+        private final long longValue;
+        private final double doubleValue;
+
+        private NumberNode(NBTPrimitive req) {
+            super(req.getId());
+            floating = isFloating(req);
+            longValue = req.func_150291_c();
+            doubleValue = req.func_150286_g();
+        }
+
+        @Override
+        protected boolean testTyped(NBTBase sample) {
+            NBTPrimitive number = (NBTPrimitive) sample;
+            // Numbers compare by value regardless of their tag type, as doubles if either side is floating point
+            if (floating || isFloating(number)) return doubleValue == number.func_150286_g();
+            return longValue == number.func_150291_c();
+        }
+    }
+
+    private static final class EqualsNode extends Node {
+
+        private final NBTBase value;
+
+        private EqualsNode(NBTBase value) {
+            super(value.getId());
+            this.value = value;
+        }
+
+        @Override
+        protected boolean testTyped(NBTBase sample) {
+            return value.equals(sample);
+        }
+    }
+}
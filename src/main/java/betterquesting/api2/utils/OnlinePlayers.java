@@ -0,0 +1,43 @@
+package betterquesting.api2.utils;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+
+import betterquesting.api.api.QuestingAPI;
+
+/**
+ * Questing UUID to player lookup for everyone currently logged into the server. Kept up to date from the login, logout
+ * and respawn events so lookups don't have to walk the server's player list.
+ */
+public class OnlinePlayers {
+
+    private static final Map<UUID, EntityPlayerMP> players = new ConcurrentHashMap<>();
+
+    public static void add(@Nonnull EntityPlayerMP player) {
+        UUID uuid = QuestingAPI.getQuestingUUID(player);
+        if (uuid != null) players.put(uuid, player);
+        ParticipantInfo.clearCache();
+    }
+
+    public static void remove(@Nonnull EntityPlayerMP player) {
+        UUID uuid = QuestingAPI.getQuestingUUID(player);
+        // Only if it's still the same entity, a respawn may have replaced it already
+        if (uuid != null) players.remove(uuid, player);
+        ParticipantInfo.clearCache();
+    }
+
+    @Nullable
+    public static EntityPlayerMP get(@Nullable UUID uuid) {
+        return uuid == null ? null : players.get(uuid);
+    }
+
+    public static void clear() {
+        players.clear();
+    }
+}
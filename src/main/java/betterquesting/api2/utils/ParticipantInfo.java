@@ -4,12 +4,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.server.MinecraftServer;
@@ -17,12 +20,42 @@ import net.minecraftforge.common.util.FakePlayer;
 
 import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.questing.party.IParty;
+import betterquesting.api.questing.tasks.ITask;
 import betterquesting.api2.cache.QuestCache;
 import betterquesting.api2.storage.DBEntry;
 import betterquesting.questing.party.PartyManager;
 
 public class ParticipantInfo {
 
+    // Reused by every quest event fired for the same player during a server tick
+    private static final Map<EntityPlayer, ParticipantInfo> tickCache = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the participant info of this player for the current tick, building it on first use
+     */
+    public static ParticipantInfo of(EntityPlayer player) {
+        if (player == null || player instanceof FakePlayer
+            || player.worldObj.isRemote
+            || MinecraftServer.getServer() == null) {
+            return new ParticipantInfo(player);
+        }
+
+        // Built outside the map so a party change clearing the cache can't block on it
+        ParticipantInfo info = tickCache.get(player);
+        if (info == null) {
+            info = new ParticipantInfo(player);
+            tickCache.put(player, info);
+        }
+        return info;
+    }
+
+    /**
+     * Drops all cached participant infos. Called every tick and whenever party membership changes
+     */
+    public static void clearCache() {
+        tickCache.clear();
+    }
+
     public final EntityPlayer PLAYER;
     public final UUID UUID;
 
@@ -54,14 +87,7 @@ public class ParticipantInfo {
             .getMembers()) {
             allID.add(mem);
 
-            EntityPlayer pMem = null;
-            for (Object o : server.getConfigurationManager().playerEntityList) {
-                if (((EntityPlayer) o).getGameProfile()
-                    .getId()
-                    .equals(mem)) {
-                    pMem = (EntityPlayer) o;
-                }
-            }
+            EntityPlayer pMem = OnlinePlayers.get(mem);
 
             if (pMem != null) {
                 actPl.add(pMem);
@@ -83,6 +109,22 @@ public class ParticipantInfo {
         }
     }
 
+    /**
+     * Progress revision the task had when it last checked this player's inventory, or null if unknown
+     */
+    @Nullable
+    public Long getCheckedRevision(ITask task) {
+        QuestCache qc = (QuestCache) PLAYER.getExtendedProperties(QuestCache.LOC_QUEST_CACHE.toString());
+        return qc == null ? null : qc.getCheckedRevision(task);
+    }
+
+    public void setCheckedRevision(ITask task, long revision) {
+        QuestCache qc = (QuestCache) PLAYER.getExtendedProperties(QuestCache.LOC_QUEST_CACHE.toString());
+        if (qc != null) {
+            qc.setCheckedRevision(task, revision);
+        }
+    }
+
     public void markDirtyParty(UUID questId) // Marks quests as dirty for the entire (active) party
     {
         ACTIVE_PLAYERS.forEach((value) -> {
@@ -103,4 +145,35 @@ public class ParticipantInfo {
             .flatMap(Set::stream)
             .collect(Collectors.toCollection(HashSet::new));
     }
+
+    /**
+     * Returns the tasks of type {@code type} from all quests which one or more participants have unlocked.
+     * Quests shared by several participants are only listed once.
+     */
+    @Nonnull
+    public <T> List<QuestCache.ActiveTask<T>> getSharedTasks(@Nonnull Class<T> type) {
+        if (ACTIVE_PLAYERS.size() == 1) {
+            QuestCache qc = (QuestCache) ACTIVE_PLAYERS.get(0)
+                .getExtendedProperties(QuestCache.LOC_QUEST_CACHE.toString());
+            return qc == null ? Collections.emptyList() : qc.getActiveTasks(type);
+        }
+
+        List<QuestCache.ActiveTask<T>> shared = new ArrayList<>();
+        Set<UUID> seenQuests = new HashSet<>();
+        for (EntityPlayer member : ACTIVE_PLAYERS) {
+            QuestCache qc = (QuestCache) member.getExtendedProperties(QuestCache.LOC_QUEST_CACHE.toString());
+            if (qc == null) continue;
+
+            Set<UUID> memberQuests = new HashSet<>();
+            for (QuestCache.ActiveTask<T> task : qc.getActiveTasks(type)) {
+                UUID questID = task.getQuest()
+                    .getKey();
+                if (seenQuests.contains(questID)) continue;
+                memberQuests.add(questID);
+                shared.add(task);
+            }
+            seenQuests.addAll(memberQuests);
+        }
+        return shared;
+    }
 }
@@ -48,7 +48,7 @@ public class TileObservationStation extends TileEntity {
         final EntityPlayerMP player = getPlayerByUUID(this.owner);
         if (player == null) return;
 
-        ParticipantInfo pInfo = new ParticipantInfo(player);
+        ParticipantInfo pInfo = ParticipantInfo.of(player);
 
         List<ItemStack> items = new ArrayList<>();
         List<FluidStack> fluids = new ArrayList<>();
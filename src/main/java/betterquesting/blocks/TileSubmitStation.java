@@ -1,6 +1,5 @@
 package betterquesting.blocks;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,6 +32,7 @@ import betterquesting.api.questing.tasks.ITask;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api.utils.UuidConverter;
 import betterquesting.api2.cache.QuestCache;
+import betterquesting.api2.utils.OnlinePlayers;
 import betterquesting.core.BetterQuesting;
 import betterquesting.questing.QuestDatabase;
 import betterquesting.storage.QuestSettings;
@@ -314,16 +314,7 @@ public class TileSubmitStation extends TileEntity implements IFluidHandler, ISid
     }
 
     private EntityPlayerMP getPlayerByUUID(UUID uuid) {
-        MinecraftServer server = MinecraftServer.getServer();
-        if (server == null) return null;
-
-        for (EntityPlayerMP player : (List<EntityPlayerMP>) server.getConfigurationManager().playerEntityList) {
-            if (player.getGameProfile()
-                .getId()
-                .equals(uuid)) return player;
-        }
-
-        return null;
+        return OnlinePlayers.get(uuid);
     }
 
     public void setupTask(UUID owner, IQuest quest, ITask task) {
@@ -40,6 +40,19 @@ public class BookmarkHandler {
         return BOOKMARKS.indexOf(questId.toString());
     }
 
+    /**
+     * Returns the bookmarked quest IDs in bookmark order
+     */
+    public static List<UUID> getBookmarks() {
+        List<UUID> list = new ArrayList<>(BOOKMARKS.size());
+        for (String uuid : BOOKMARKS) {
+            try {
+                list.add(UUID.fromString(uuid));
+            } catch (IllegalArgumentException ignored) {}
+        }
+        return list;
+    }
+
     public static boolean isBookmarked(UUID questId) {
         return BOOKMARKS.contains(questId.toString());
     }
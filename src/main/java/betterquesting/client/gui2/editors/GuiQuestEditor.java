@@ -14,6 +14,7 @@ import betterquesting.api.enums.EnumLogic;
 import betterquesting.api.enums.EnumQuestVisibility;
 import betterquesting.api.properties.NativeProps;
 import betterquesting.api.questing.IQuest;
+import betterquesting.api.utils.BigItemStack;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api2.client.gui.GuiScreenCanvas;
 import betterquesting.api2.client.gui.controls.IPanelButton;
@@ -279,7 +280,10 @@ public class GuiQuestEditor extends GuiScreenCanvas implements IPEventListener,
                 break;
             }
             case 8: {
-                mc.displayGuiScreen(new GuiItemSelection(this, quest.getProperty(NativeProps.ICON), value -> {
+                // The editor changes the stack in place, so it gets a copy of the quest's icon
+                BigItemStack icon = quest.getProperty(NativeProps.ICON)
+                    .copy();
+                mc.displayGuiScreen(new GuiItemSelection(this, icon, value -> {
                     quest.setProperty(NativeProps.ICON, value);
                     SendChanges();
                 }));
@@ -20,6 +20,7 @@ import betterquesting.api.client.gui.misc.IVolatileScreen;
 import betterquesting.api.enums.EnumQuestVisibility;
 import betterquesting.api.properties.NativeProps;
 import betterquesting.api.questing.IQuestLine;
+import betterquesting.api.utils.BigItemStack;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api2.client.gui.GuiScreenCanvas;
 import betterquesting.api2.client.gui.controls.IPanelButton;
@@ -183,11 +184,12 @@ public class GuiQuestLinesEditor extends GuiScreenCanvas implements IPEventListe
                 if (selected == null) {
                     return;
                 }
-                mc.displayGuiScreen(
-                    new GuiItemSelection(GuiQuestLinesEditor.this, selected.getProperty(NativeProps.ICON), value -> {
-                        selected.setProperty(NativeProps.ICON, value);
-                        SendChanges(Maps.immutableEntry(selID, selected));
-                    }));
+                BigItemStack icon = selected.getProperty(NativeProps.ICON)
+                    .copy();
+                mc.displayGuiScreen(new GuiItemSelection(GuiQuestLinesEditor.this, icon, value -> {
+                    selected.setProperty(NativeProps.ICON, value);
+                    SendChanges(Maps.immutableEntry(selID, selected));
+                }));
             }
         };
         btnIcon.setActive(selected != null);
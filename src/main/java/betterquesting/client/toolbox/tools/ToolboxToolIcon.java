@@ -56,7 +56,8 @@ public class ToolboxToolIcon implements IToolboxTool {
 
     private void changeIcon(List<PanelButtonQuest> list, BigItemStack refItem) {
         Minecraft mc = Minecraft.getMinecraft();
-        mc.displayGuiScreen(new GuiItemSelection(mc.currentScreen, refItem, value -> {
+        // The editor changes the stack in place, so don't hand it the quest's own copy
+        mc.displayGuiScreen(new GuiItemSelection(mc.currentScreen, refItem.copy(), value -> {
             NBTTagList dataList = new NBTTagList();
             for (PanelButtonQuest b : list) {
                 b.getStoredValue()
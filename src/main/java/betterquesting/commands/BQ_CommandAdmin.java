@@ -16,7 +16,9 @@ import betterquesting.commands.admin.QuestCommandDefaults;
 import betterquesting.commands.admin.QuestCommandDelete;
 import betterquesting.commands.admin.QuestCommandEdit;
 import betterquesting.commands.admin.QuestCommandHardcore;
+import betterquesting.commands.admin.QuestCommandIO;
 import betterquesting.commands.admin.QuestCommandLives;
+import betterquesting.commands.admin.QuestCommandProgressJson;
 import betterquesting.commands.admin.QuestCommandPurge;
 import betterquesting.commands.admin.QuestCommandReportAllProgress;
 import betterquesting.commands.admin.QuestCommandReset;
@@ -38,6 +40,8 @@ public class BQ_CommandAdmin extends CommandBase {
         coms.add(new QuestCommandCheckCompletion());
         coms.add(new QuestCommandReportAllProgress());
         coms.add(new QuestCommandCleanupQuestLine());
+        coms.add(new QuestCommandProgressJson());
+        coms.add(new QuestCommandIO());
     }
 
     @Override
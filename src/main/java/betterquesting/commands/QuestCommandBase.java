@@ -11,6 +11,7 @@ import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.server.MinecraftServer;
 
 import betterquesting.api.api.QuestingAPI;
+import betterquesting.handlers.SaveLoadHandler;
 import betterquesting.storage.NameCache;
 
 public abstract class QuestCommandBase {
@@ -71,6 +72,10 @@ public abstract class QuestCommandBase {
             playerID = QuestingAPI.getQuestingUUID(player);
         }
 
+        if (playerID != null) {
+            SaveLoadHandler.INSTANCE.ensureLoaded(playerID);
+        }
+
         return playerID;
     }
 
@@ -10,12 +10,18 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -78,6 +84,10 @@ public class QuestCommandDefaults extends QuestCommandBase {
      * actual file name will be longer.
      */
     public static final int FILE_NAME_MAX_LENGTH = 16;
+    private static final int PARSE_THREADS = Math.min(
+        4,
+        Runtime.getRuntime()
+            .availableProcessors());
 
     @Override
     public String getUsageSuffix() {
@@ -355,8 +365,7 @@ public class QuestCommandDefaults extends QuestCommandBase {
             return;
         }
 
-        Function<File, NBTTagCompound> readNbt = file -> NBTConverter
-            .JSONtoNBT_Object(JsonHelper.ReadFromFile(file), new NBTTagCompound(), true);
+        Function<File, NBTTagCompound> readNbt = file -> JsonHelper.ReadNBTFromFile(file, true);
 
         boolean editMode = QuestSettings.INSTANCE.getProperty(NativeProps.EDIT_MODE);
         boolean hardMode = QuestSettings.INSTANCE.getProperty(NativeProps.HARDCORE);
@@ -372,7 +381,11 @@ public class QuestCommandDefaults extends QuestCommandBase {
         QuestSettings.INSTANCE.readFromNBT(readNbt.apply(settingsFile));
 
         File questLineDir = new File(dataDir, QUEST_LINE_DIR);
-        Map<UUID, IQuestLine> questLines = new HashMap<>();
+        File questDir = new File(dataDir, QUEST_DIR);
+
+        // Gather every file up front so they can all be parsed in one parallel batch
+        Map<File, List<File>> questLineFiles = new LinkedHashMap<>();
+        List<File> allFiles = new ArrayList<>();
         for (File questLineSubdir : questLineDir.listFiles()) {
             File questLineFile = new File(questLineSubdir, QUEST_LINE_FILE);
             if (!questLineFile.exists()) {
@@ -382,25 +395,67 @@ public class QuestCommandDefaults extends QuestCommandBase {
                 return;
             }
 
-            NBTTagCompound questLineTag = readNbt.apply(questLineFile);
+            List<File> entryFiles = new ArrayList<>();
+            for (File questLineEntryFile : questLineSubdir.listFiles()) {
+                if (!questLineEntryFile.getName()
+                    .equals(QUEST_LINE_FILE)) {
+                    entryFiles.add(questLineEntryFile);
+                }
+            }
+
+            questLineFiles.put(questLineFile, entryFiles);
+            allFiles.add(questLineFile);
+            allFiles.addAll(entryFiles);
+        }
+
+        List<File> questFiles;
+        try (Stream<Path> paths = Files.walk(questDir.toPath())) {
+            questFiles = paths.filter(Files::isRegularFile)
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            QuestingAPI.getLogger()
+                .log(Level.ERROR, "Failed to traverse directory\n" + questDir, e);
+            sendChatMessage(sender, "betterquesting.cmd.error");
+            return;
+        }
+        allFiles.addAll(questFiles);
+
+        long parseStart = System.nanoTime();
+        Map<File, NBTTagCompound> parsed = parseFiles(allFiles);
+        long parseTime = System.nanoTime() - parseStart;
+        long bytes = 0;
+        for (File file : allFiles) {
+            bytes += file.length();
+        }
+
+        long mergeStart = System.nanoTime();
+        Map<UUID, IQuestLine> questLines = new HashMap<>();
+        for (Map.Entry<File, List<File>> entry : questLineFiles.entrySet()) {
+            NBTTagCompound questLineTag = parsed.get(entry.getKey());
             UUID questLineId = NBTConverter.UuidValueType.QUEST_LINE.readId(questLineTag);
 
             IQuestLine questLine = new QuestLine();
             questLine.readFromNBT(questLineTag);
             questLines.put(questLineId, questLine);
 
-            for (File questLineEntryFile : questLineSubdir.listFiles()) {
-                if (questLineEntryFile.getName()
-                    .equals(QUEST_LINE_FILE)) {
-                    continue;
-                }
-
-                NBTTagCompound questLineEntryTag = readNbt.apply(questLineEntryFile);
+            for (File questLineEntryFile : entry.getValue()) {
+                NBTTagCompound questLineEntryTag = parsed.get(questLineEntryFile);
                 UUID questId = NBTConverter.UuidValueType.QUEST.readId(questLineEntryTag);
                 questLine.put(questId, new QuestLineEntry(questLineEntryTag));
             }
         }
 
+        Map<UUID, IQuest> quests = new LinkedHashMap<>();
+        for (File questFile : questFiles) {
+            NBTTagCompound questTag = parsed.get(questFile);
+            UUID questId = NBTConverter.UuidValueType.QUEST.readId(questTag);
+
+            IQuest quest = new QuestInstance();
+            quest.readFromNBT(questTag);
+            quests.put(questId, quest);
+        }
+
         File questLineOrderFile = new File(dataDir, QUEST_LINE_ORDER_FILE);
         List<String> questLineOrderLines;
         try {
@@ -424,27 +479,21 @@ public class QuestCommandDefaults extends QuestCommandBase {
             UUID questLineId = UuidConverter.decodeUuid(iter.next());
             orderedQuestLines.add(Maps.immutableEntry(questLineId, questLines.get(questLineId)));
         }
-        QuestLineDatabase.INSTANCE.setOrderedEntries(orderedQuestLines);
 
-        File questDir = new File(dataDir, QUEST_DIR);
-        QuestDatabase.INSTANCE.clear();
-        try (Stream<Path> paths = Files.walk(questDir.toPath())) {
-            paths.filter(Files::isRegularFile)
-                .forEach(path -> {
-                    File questFile = path.toFile();
-                    NBTTagCompound questTag = readNbt.apply(questFile);
-                    UUID questId = NBTConverter.UuidValueType.QUEST.readId(questTag);
-
-                    IQuest quest = new QuestInstance();
-                    quest.readFromNBT(questTag);
-                    QuestDatabase.INSTANCE.put(questId, quest);
-                });
-        } catch (IOException e) {
-            QuestingAPI.getLogger()
-                .log(Level.ERROR, "Failed to traverse directory\n" + questDir, e);
-            sendChatMessage(sender, "betterquesting.cmd.error");
-            return;
-        }
+        // Quests go first so the new lines never point at quests that aren't there yet
+        QuestDatabase.INSTANCE.replaceAll(quests);
+        QuestLineDatabase.INSTANCE.setOrderedEntries(orderedQuestLines);
+        long mergeTime = System.nanoTime() - mergeStart;
+
+        QuestingAPI.getLogger()
+            .log(
+                Level.INFO,
+                "Loaded {} files ({} KB) from {}: parse {} ms, merge {} ms",
+                allFiles.size(),
+                bytes / 1024,
+                dataDir,
+                parseTime / 1000000,
+                mergeTime / 1000000);
 
         if (!loadWorldSettings) {
             // Don't load world-specific settings, so restore them from the snapshot we took.
@@ -459,12 +508,53 @@ public class QuestCommandDefaults extends QuestCommandBase {
             sendChatMessage(sender, "betterquesting.cmd.default.load");
         }
 
+        // Only after the progress snapshot is restored, which would otherwise overwrite what gets loaded here
+        SaveLoadHandler.INSTANCE.checkGlobalQuests();
+
         NetSettingSync.sendSync(null);
         NetQuestSync.quickSync(null, true, true);
         NetChapterSync.sendSync(null, null);
         SaveLoadHandler.INSTANCE.markDirty();
     }
 
+    /**
+     * Parses the given files on a bounded pool of worker threads. Only the parsing happens in parallel, building the
+     * quests and quest lines from the results is left to the caller
+     */
+    private static Map<File, NBTTagCompound> parseFiles(List<File> files) {
+        Map<File, NBTTagCompound> parsed = new HashMap<>();
+        int threads = Math.max(1, Math.min(PARSE_THREADS, files.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "BQ Default Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Map<File, Future<NBTTagCompound>> futures = new LinkedHashMap<>();
+            for (File file : files) {
+                futures.put(file, pool.submit(() -> JsonHelper.ParseNBTFromFile(file, true)));
+            }
+
+            for (Map.Entry<File, Future<NBTTagCompound>> entry : futures.entrySet()) {
+                try {
+                    parsed.put(
+                        entry.getKey(),
+                        entry.getValue()
+                            .get());
+                } catch (InterruptedException | ExecutionException e) {
+                    QuestingAPI.getLogger()
+                        .log(Level.ERROR, "Unable to read from file " + entry.getKey(), e);
+                    parsed.put(entry.getKey(), new NBTTagCompound());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return parsed;
+    }
+
     public static void loadLegacy(@Nullable ICommandSender sender, @Nullable String databaseName, File legacyFile,
         boolean loadWorldSettings) {
         if (legacyFile.exists()) {
@@ -472,8 +562,7 @@ public class QuestCommandDefaults extends QuestCommandBase {
             boolean hardMode = QuestSettings.INSTANCE.getProperty(NativeProps.HARDCORE);
             NBTTagList jsonP = QuestDatabase.INSTANCE.writeProgressToNBT(new NBTTagList(), null);
 
-            JsonObject j1 = JsonHelper.ReadFromFile(legacyFile);
-            NBTTagCompound nbt1 = NBTConverter.JSONtoNBT_Object(j1, new NBTTagCompound(), true);
+            NBTTagCompound nbt1 = JsonHelper.ReadNBTFromFile(legacyFile, true);
 
             QuestSettings.INSTANCE.readFromNBT(nbt1.getCompoundTag("questSettings"));
             QuestDatabase.INSTANCE.readFromNBT(nbt1.getTagList("questDatabase", Constants.NBT.TAG_COMPOUND), false);
@@ -492,6 +581,9 @@ public class QuestCommandDefaults extends QuestCommandBase {
                 sendChatMessage(sender, "betterquesting.cmd.default.load");
             }
 
+            // Only after the progress snapshot is restored, which would otherwise overwrite what gets loaded here
+            SaveLoadHandler.INSTANCE.checkGlobalQuests();
+
             NetSettingSync.sendSync(null);
             NetQuestSync.quickSync(null, true, true);
             NetChapterSync.sendSync(null, null);
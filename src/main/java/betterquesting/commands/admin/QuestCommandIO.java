@@ -0,0 +1,93 @@
+package betterquesting.commands.admin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ChatComponentTranslation;
+
+import betterquesting.api2.utils.BQThreadedIO;
+import betterquesting.commands.QuestCommandBase;
+import betterquesting.handlers.SaveLoadHandler;
+import betterquesting.network.handlers.NetQuestSync;
+
+public class QuestCommandIO extends QuestCommandBase {
+
+    @Override
+    public String getUsageSuffix() {
+        return "[reset]";
+    }
+
+    @Override
+    public boolean validArgs(String[] args) {
+        return args.length == 1 || (args.length == 2 && args[1].equalsIgnoreCase("reset"));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> autoComplete(MinecraftServer server, ICommandSender sender, String[] args) {
+        if (args.length == 2) {
+            return CommandBase.getListOfStringsMatchingLastWord(args, "reset");
+        }
+
+        return new ArrayList<>();
+    }
+
+    @Override
+    public String getCommand() {
+        return "io";
+    }
+
+    @Override
+    public void runCommand(MinecraftServer server, CommandBase command, ICommandSender sender, String[] args)
+        throws CommandException {
+        if (args.length == 2) {
+            BQThreadedIO.getAll()
+                .forEach(BQThreadedIO::resetStats);
+            sender.addChatMessage(new ChatComponentTranslation("betterquesting.cmd.io.reset"));
+            return;
+        }
+
+        for (BQThreadedIO io : BQThreadedIO.getAll()) {
+            sender.addChatMessage(
+                new ChatComponentTranslation(
+                    "betterquesting.cmd.io.executor",
+                    io.getName(),
+                    io.getQueueDepth(),
+                    io.getActiveCount(),
+                    io.getCompletedCount(),
+                    String.format("%.2f", io.getAverageWaitMillis()),
+                    String.format("%.2f", io.getMaxWaitMillis()),
+                    String.format("%.2f", io.getAverageRunMillis()),
+                    io.getCallerRunsCount(),
+                    io.getRejectedCount()));
+        }
+
+        sender.addChatMessage(
+            new ChatComponentTranslation(
+                "betterquesting.cmd.io.sync",
+                NetQuestSync.getRequestedCount(),
+                NetQuestSync.getMergedCount(),
+                NetQuestSync.getSentCount()));
+
+        SaveLoadHandler.SaveReport save = SaveLoadHandler.INSTANCE.getLastSave();
+        if (save != null) {
+            sender.addChatMessage(
+                new ChatComponentTranslation(
+                    "betterquesting.cmd.io.save",
+                    save.written.size() + save.progressFiles,
+                    save.skipped,
+                    save.bytes / 1024,
+                    save.totalMillis,
+                    save.snapshotMillis));
+            sender.addChatMessage(
+                new ChatComponentTranslation(
+                    "betterquesting.cmd.io.save_files",
+                    save.written.isEmpty() ? "-" : String.join(", ", save.written),
+                    save.progressFiles));
+        }
+    }
+}
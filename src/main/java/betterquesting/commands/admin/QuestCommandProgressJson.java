@@ -0,0 +1,131 @@
+package betterquesting.commands.admin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ChatComponentTranslation;
+
+import betterquesting.api.api.QuestingAPI;
+import betterquesting.api.storage.BQ_Settings;
+import betterquesting.commands.QuestCommandBase;
+import betterquesting.handlers.SaveLoadHandler;
+import betterquesting.network.handlers.NetQuestSync;
+import betterquesting.storage.NameCache;
+
+/**
+ * Converts player progress between the binary save format and the JSON format used by older versions
+ */
+public class QuestCommandProgressJson extends QuestCommandBase {
+
+    @Override
+    public String getCommand() {
+        return "progress_json";
+    }
+
+    @Override
+    public String getUsageSuffix() {
+        return "[export|import] [username|uuid]";
+    }
+
+    @Override
+    public boolean validArgs(String[] args) {
+        return args.length == 2 || args.length == 3;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> autoComplete(MinecraftServer server, ICommandSender sender, String[] args) {
+        ArrayList<String> list = new ArrayList<>();
+
+        if (args.length == 2) {
+            return CommandBase.getListOfStringsMatchingLastWord(args, "export", "import");
+        } else if (args.length == 3) {
+            return CommandBase.getListOfStringsMatchingLastWord(
+                args,
+                NameCache.INSTANCE.getAllNames()
+                    .toArray(new String[0]));
+        }
+
+        return list;
+    }
+
+    @Override
+    public void runCommand(MinecraftServer server, CommandBase command, ICommandSender sender, String[] args) {
+        File dir = new File(BQ_Settings.curWorldDir, "export/QuestProgress");
+        List<UUID> players;
+
+        if (args.length == 3) {
+            UUID uuid = this.findPlayerID(server, sender, args[2]);
+
+            if (uuid == null) {
+                throw this.getException(command);
+            }
+
+            players = Collections.singletonList(uuid);
+        } else if (args[1].equalsIgnoreCase("export")) {
+            SaveLoadHandler.INSTANCE.ensureAllLoaded();
+            players = new ArrayList<>(SaveLoadHandler.INSTANCE.getPlayersWithProgress());
+        } else {
+            players = new ArrayList<>();
+            File[] files = dir.listFiles();
+
+            if (files != null) {
+                for (File file : files) {
+                    String name = file.getName();
+                    if (!name.endsWith(".json")) continue;
+
+                    try {
+                        players.add(UUID.fromString(name.substring(0, name.length() - 5)));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            }
+        }
+
+        if (args[1].equalsIgnoreCase("export")) {
+            for (UUID uuid : players) {
+                SaveLoadHandler.INSTANCE.exportPlayerProgress(uuid, dir);
+            }
+
+            sender.addChatMessage(
+                new ChatComponentTranslation(
+                    "betterquesting.cmd.progress_json.export",
+                    players.size(),
+                    dir.getAbsolutePath()));
+        } else if (args[1].equalsIgnoreCase("import")) {
+            int count = 0;
+
+            for (UUID uuid : players) {
+                File file = new File(dir, uuid.toString() + ".json");
+                if (!file.exists()) continue;
+
+                SaveLoadHandler.INSTANCE.importPlayerProgress(uuid, file);
+                count++;
+
+                EntityPlayerMP player = QuestingAPI.getPlayer(uuid);
+                if (player != null) {
+                    NetQuestSync.sendSync(player, null, false, true, true);
+                }
+            }
+
+            sender.addChatMessage(
+                new ChatComponentTranslation(
+                    "betterquesting.cmd.progress_json.import",
+                    count,
+                    dir.getAbsolutePath()));
+        } else {
+            throw getException(command);
+        }
+    }
+
+    @Override
+    public boolean isArgUsername(String[] args, int index) {
+        return index == 2;
+    }
+}
@@ -72,6 +72,10 @@ public class QuestCommandReset extends QuestCommandBase {
             }
         }
 
+        if (uuid == null) {
+            SaveLoadHandler.INSTANCE.ensureAllLoaded(); // Players that haven't logged in yet would keep their progress
+        }
+
         String pName = uuid == null ? "NULL" : NameCache.INSTANCE.getName(uuid);
         EntityPlayerMP player = null;
         if (uuid != null) {
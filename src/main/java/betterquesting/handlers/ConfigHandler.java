@@ -144,6 +144,25 @@ public class ConfigHandler {
             Configuration.CATEGORY_GENERAL,
             false,
             "If true, rewards will be disabled. This might not be supported by reward types.");
+        BQ_Settings.cacheRefreshInterval = config.getInt(
+            "Quest cache refresh interval",
+            Configuration.CATEGORY_GENERAL,
+            10,
+            0,
+            86400,
+            "Seconds between full rebuilds of each player's quest cache. State changes are already applied incrementally, so this only acts as a consistency check (0 to disable)");
+        BQ_Settings.lazyProgress = config.getBoolean(
+            "Lazy load player progress",
+            Configuration.CATEGORY_GENERAL,
+            true,
+            "If true, a player's quest progress is only read from disk when they log in or are targeted by a command. Ignored while any quest is global.");
+        BQ_Settings.ioQueueLimit = config.getInt(
+            "IO queue limit",
+            Configuration.CATEGORY_GENERAL,
+            1024,
+            1,
+            65536,
+            "Maximum number of jobs waiting on each of the network-encode, disk-write and disk-read threads");
         config.save();
     }
 }
@@ -2,8 +2,10 @@ package betterquesting.handlers;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
@@ -46,7 +48,6 @@ import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.client.gui.misc.INeedsRefresh;
 import betterquesting.api.events.BQLivingUpdateEvent;
 import betterquesting.api.events.DatabaseEvent;
-import betterquesting.api.events.MarkDirtyPlayerEvent;
 import betterquesting.api.events.QuestEvent;
 import betterquesting.api.events.QuestEvent.Type;
 import betterquesting.api.placeholders.FluidPlaceholder;
@@ -61,6 +62,9 @@ import betterquesting.api2.client.gui.GuiScreenTest;
 import betterquesting.api2.client.gui.themes.gui_args.GArgsNone;
 import betterquesting.api2.client.gui.themes.presets.PresetGUIs;
 import betterquesting.api2.storage.DBEntry;
+import betterquesting.api2.utils.DirtyPlayerMarker;
+import betterquesting.api2.utils.OnlinePlayers;
+import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.api2.utils.QuestTranslation;
 import betterquesting.client.BQ_Keybindings;
 import betterquesting.client.BookmarkHandler;
@@ -69,6 +73,7 @@ import betterquesting.client.gui2.GuiQuestLines;
 import betterquesting.client.themes.ThemeRegistry;
 import betterquesting.commands.client.QuestCommandShow;
 import betterquesting.core.BetterQuesting;
+import betterquesting.network.PacketSender;
 import betterquesting.network.handlers.NetBulkSync;
 import betterquesting.network.handlers.NetNameSync;
 import betterquesting.network.handlers.NetNotices;
@@ -240,7 +245,7 @@ public class EventHandler {
         QResetTime[] pendingResets = qc.getScheduledResets();
 
         UUID uuid = QuestingAPI.getQuestingUUID(player);
-        boolean refreshCache = false;
+        Set<UUID> changedQuests = new HashSet<>();
 
         if (!editMode && player.ticksExisted % 60 == 0) // Passive quest state check every 3 seconds
         {
@@ -262,7 +267,7 @@ public class EventHandler {
                     .isComplete(uuid)
                     && !entry.getValue()
                         .canSubmit(player)) {
-                    refreshCache = true;
+                    changedQuests.add(entry.getKey());
                     qc.markQuestDirty(entry.getKey());
 
                     com.add(entry.getKey());
@@ -292,7 +297,7 @@ public class EventHandler {
                         entry.resetUser(uuid, false);
                     }
 
-                    refreshCache = true;
+                    changedQuests.add(rTime.questID);
                     qc.markQuestDirty(rTime.questID);
                     res.add(rTime.questID);
                     if (!entry.getProperty(NativeProps.SILENT)) {
@@ -313,7 +318,7 @@ public class EventHandler {
                     .canClaim(player)) {
                     entry.getValue()
                         .claimReward(player);
-                    refreshCache = true;
+                    changedQuests.add(entry.getKey());
                     qc.markQuestDirty(entry.getKey());
                     // Not going to notify of auto-claims anymore. Kinda pointless if they're already being pinged for
                     // completion
@@ -321,10 +326,16 @@ public class EventHandler {
             }
         }
 
-        if (refreshCache || player.ticksExisted % 200 == 0) // Refresh the cache if something changed or every 10
-                                                            // seconds
+        // Dirty quests also cover claims and completions triggered outside of this handler
+        changedQuests.addAll(qc.getDirtyQuests());
+
+        int refreshTicks = BQ_Settings.cacheRefreshInterval * 20;
+        if (refreshTicks > 0 && player.ticksExisted % refreshTicks == 0) // Periodic full rebuild as a consistency check
         {
             qc.updateCache(player);
+        } else if (!changedQuests.isEmpty()) // Otherwise only re-evaluate what changed and its dependents
+        {
+            qc.updateCache(player, changedQuests);
         }
 
         if (!qc.getDirtyQuests()
@@ -393,6 +404,10 @@ public class EventHandler {
 
         EntityPlayerMP mpPlayer = (EntityPlayerMP) event.player;
 
+        OnlinePlayers.add(mpPlayer);
+        SaveLoadHandler.INSTANCE.ensureLoadedWithParty(QuestingAPI.getQuestingUUID(mpPlayer));
+        NetQuestSync.forgetPlayer(QuestingAPI.getQuestingUUID(mpPlayer));
+
         if (BetterQuesting.proxy.isClient() && !MinecraftServer.getServer()
             .isDedicatedServer()
             && MinecraftServer.getServer()
@@ -411,8 +426,21 @@ public class EventHandler {
         if (party != null) PartyManager.SyncPartyQuests(party.getValue(), false);
     }
 
+    @SubscribeEvent
+    public void onPlayerLeave(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.player.worldObj.isRemote) return;
+
+        if (event.player instanceof EntityPlayerMP) OnlinePlayers.remove((EntityPlayerMP) event.player);
+        NetQuestSync.forgetPlayer(QuestingAPI.getQuestingUUID(event.player));
+    }
+
     @SubscribeEvent
     public void onPlayerRespawn(PlayerRespawnEvent event) {
+        // Respawning replaces the player entity
+        if (!event.player.worldObj.isRemote && event.player instanceof EntityPlayerMP) {
+            OnlinePlayers.add((EntityPlayerMP) event.player);
+        }
+
         if (QuestSettings.INSTANCE.getProperty(NativeProps.HARDCORE) && event.player instanceof EntityPlayerMP
             && !((EntityPlayerMP) event.player).playerConqueredTheEnd) {
             EntityPlayerMP mpPlayer = (EntityPlayerMP) event.player;
@@ -531,6 +559,7 @@ public class EventHandler {
     public void onServerTick(ServerTickEvent event) {
         if (event.phase == Phase.START) {
             if (serverThread == null) serverThread = Thread.currentThread();
+            ParticipantInfo.clearCache();
 
             synchronized (serverTasks) {
                 while (!serverTasks.isEmpty()) serverTasks.poll()
@@ -572,10 +601,10 @@ public class EventHandler {
         for (EntityPlayerMP player : (List<EntityPlayerMP>) server.getConfigurationManager().playerEntityList) {
             MinecraftForge.EVENT_BUS.post(new BQLivingUpdateEvent(player));
         }
-    }
 
-    @SubscribeEvent
-    public void onMarkDirtyPlayer(MarkDirtyPlayerEvent event) {
-        SaveLoadHandler.INSTANCE.addDirtyPlayers(event.getDirtyPlayerIDs());
+        NetQuestSync.flushPending();
+        PacketSender.resyncDropped(server);
+        DirtyPlayerMarker.flushEvent();
+        SaveLoadHandler.INSTANCE.pollSave();
     }
 }
@@ -1,18 +1,30 @@
 package betterquesting.handlers;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
+import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.server.MinecraftServer;
@@ -20,15 +32,23 @@ import net.minecraftforge.common.MinecraftForge;
 
 import org.apache.commons.io.FileUtils;
 
-import com.google.gson.JsonObject;
+import com.google.common.hash.Hashing;
+import com.google.gson.stream.JsonWriter;
 
+import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.events.DatabaseEvent;
 import betterquesting.api.events.DatabaseEvent.DBType;
 import betterquesting.api.properties.NativeProps;
 import betterquesting.api.questing.IQuest;
+import betterquesting.api.questing.party.IParty;
 import betterquesting.api.storage.BQ_Settings;
 import betterquesting.api.utils.JsonHelper;
 import betterquesting.api.utils.NBTConverter;
+import betterquesting.api2.storage.DBEntry;
+import betterquesting.api2.utils.BQThreadedIO;
+import betterquesting.api2.utils.DirtyPlayerMarker;
+import betterquesting.api2.utils.OnlinePlayers;
+import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.client.QuestNotification;
 import betterquesting.client.gui2.GuiHome;
 import betterquesting.commands.admin.QuestCommandDefaults;
@@ -41,7 +61,6 @@ import betterquesting.storage.LifeDatabase;
 import betterquesting.storage.NameCache;
 import betterquesting.storage.QuestSettings;
 import cpw.mods.fml.common.Loader;
-import io.netty.util.internal.ConcurrentSet;
 
 public class SaveLoadHandler {
 
@@ -53,7 +72,16 @@ public class SaveLoadHandler {
     private File fileDatabase = null, fileProgress = null, dirProgress = null, fileParties = null, fileLives = null,
         fileNames = null;
 
-    private final Set<UUID> dirtyPlayers = new ConcurrentSet<>();
+    private SaveJob pendingSave = null;
+    private SaveReport lastSave = null;
+    // What was last written to each JSON file, so unchanged ones can be skipped
+    private final Map<File, Long> writtenHashes = new ConcurrentHashMap<>();
+    private volatile long namesRevision = -1;
+    private volatile long livesRevision = -1;
+    private volatile long partiesRevision = -1;
+
+    // Progress files that have been found on disk but not yet merged into the quest database
+    private final Map<UUID, File> unloadedProgress = new ConcurrentHashMap<>();
 
     public boolean hasUpdate() {
         return this.hasUpdate;
@@ -68,11 +96,11 @@ public class SaveLoadHandler {
     }
 
     public void addDirtyPlayers(UUID... players) {
-        this.dirtyPlayers.addAll(Arrays.asList(players));
+        DirtyPlayerMarker.markDirty(players);
     }
 
     public void addDirtyPlayers(Collection<UUID> players) {
-        this.dirtyPlayers.addAll(players);
+        DirtyPlayerMarker.markDirty(players);
     }
 
     public void loadDatabases(MinecraftServer server) {
@@ -105,10 +133,13 @@ public class SaveLoadHandler {
         loadProgress();
 
         LoadParties();
+        partiesRevision = PartyManager.INSTANCE.getRevision();
 
         loadNames();
+        namesRevision = NameCache.INSTANCE.getRevision();
 
         loadLives();
+        livesRevision = LifeDatabase.INSTANCE.getRevision();
 
         BetterQuesting.logger.info("Loaded " + QuestDatabase.INSTANCE.size() + " quests");
         BetterQuesting.logger.info("Loaded " + QuestLineDatabase.INSTANCE.size() + " quest lines");
@@ -118,26 +149,71 @@ public class SaveLoadHandler {
         MinecraftForge.EVENT_BUS.post(new DatabaseEvent.Load(DBType.ALL));
     }
 
+    /**
+     * Captures the NBT of everything that needs saving on the calling thread and hands it off to
+     * {@link BQThreadedIO#DISK_WRITE}. Returns without waiting for the writes, unless the previous save is somehow
+     * still running, in which case it's finished first so an older snapshot can't overwrite a newer one. If the disk
+     * writer's queue is full, a file is serialized and written on the calling thread instead
+     */
     public void saveDatabases() {
-        List<Future<Void>> allFutures = new ArrayList<>(5);
+        awaitSave();
+
+        SaveJob job = new SaveJob();
 
         if (!BQ_Settings.dirtyMode || isDirty || QuestSettings.INSTANCE.getProperty(NativeProps.EDIT_MODE)) {
-            allFutures.add(saveConfig());
+            saveConfig(job);
         }
 
-        allFutures.addAll(saveProgress());
+        saveProgress(job);
 
-        allFutures.add(saveParties());
+        saveParties(job);
 
-        allFutures.add(saveNames());
+        saveNames(job);
 
-        allFutures.add(saveLives());
+        saveLives(job);
 
         MinecraftForge.EVENT_BUS.post(new DatabaseEvent.Save(DBType.ALL));
 
-        for (Future<Void> future : allFutures) {
+        job.snapshotNanos = System.nanoTime() - job.started;
+        pendingSave = job;
+        isDirty = false;
+    }
+
+    /**
+     * Reports the last save once its writes are done. Called once per server tick
+     */
+    public void pollSave() {
+        SaveJob job = pendingSave;
+        if (job != null && job.isDone()) finishSave(job);
+    }
+
+    /**
+     * Blocks until the writes of the last save are done
+     */
+    public void awaitSave() {
+        SaveJob job = pendingSave;
+        if (job != null) finishSave(job);
+    }
+
+    private void finishSave(SaveJob job) {
+        pendingSave = null;
+        long bytes = 0;
+        List<String> written = new ArrayList<>();
+        int progressFiles = 0;
+
+        for (Map.Entry<File, Future<Void>> entry : job.writes.entrySet()) {
+            File file = entry.getKey();
             try {
-                future.get();
+                entry.getValue()
+                    .get();
+                if (job.skipped.contains(file)) continue;
+
+                bytes += file.length();
+                if (dirProgress.equals(file.getParentFile())) {
+                    progressFiles++;
+                } else {
+                    written.add(file.getName());
+                }
             } catch (InterruptedException e) {
                 BetterQuesting.logger.warn("Saving interrupted!", e);
             } catch (ExecutionException e) {
@@ -145,13 +221,46 @@ public class SaveLoadHandler {
             }
         }
 
-        isDirty = false;
+        lastSave = new SaveReport(
+            written,
+            progressFiles,
+            job.skipped.size(),
+            bytes,
+            job.snapshotNanos / 1000000L,
+            (System.nanoTime() - job.started) / 1000000L);
+        BetterQuesting.logger.debug(
+            "Saved {} and {} progress files ({} bytes, {} unchanged) in {} ms, {} ms of which on the server thread",
+            written,
+            progressFiles,
+            lastSave.bytes,
+            lastSave.skipped,
+            lastSave.totalMillis,
+            lastSave.snapshotMillis);
+    }
+
+    /**
+     * Statistics of the last finished save, or null if nothing was saved yet
+     */
+    @Nullable
+    public SaveReport getLastSave() {
+        return lastSave;
     }
 
     public void unloadDatabases() {
+        // Shutting down, anything still being written has to reach the disk first
+        awaitSave();
+        writtenHashes.clear();
+        namesRevision = -1;
+        livesRevision = -1;
+        partiesRevision = -1;
+
         BQ_Settings.curWorldDir = null;
         hasUpdate = false;
         isDirty = false;
+        unloadedProgress.clear();
+        DirtyPlayerMarker.clear();
+        OnlinePlayers.clear();
+        ParticipantInfo.clearCache();
 
         QuestSettings.INSTANCE.reset();
         QuestDatabase.INSTANCE.clear();
@@ -182,8 +291,7 @@ public class SaveLoadHandler {
         if (fileDatabase.exists()) {
             boolean legacySettings = !defaultDatabaseSettingsFile.exists();
             File settingsFile = legacySettings ? defaultDatabaseFile : defaultDatabaseSettingsFile;
-            JsonObject settingsJson = JsonHelper.ReadFromFile(settingsFile);
-            NBTTagCompound settingsTag = NBTConverter.JSONtoNBT_Object(settingsJson, new NBTTagCompound(), true);
+            NBTTagCompound settingsTag = JsonHelper.ReadNBTFromFile(settingsFile, true);
 
             QuestSettings tmpSettings = new QuestSettings();
             tmpSettings.readFromNBT(legacySettings ? settingsTag.getCompoundTag("questSettings") : settingsTag);
@@ -192,8 +300,7 @@ public class SaveLoadHandler {
 
             // Getting the build version like this is a bit wasteful, as we read the JSON twice.
             // Perhaps we should improve this.
-            JsonObject databaseJson = JsonHelper.ReadFromFile(fileDatabase);
-            String buildVer = NBTConverter.JSONtoNBT_Object(databaseJson, new NBTTagCompound(), true)
+            String buildVer = JsonHelper.ReadNBTFromFile(fileDatabase, true)
                 .getString("build");
             String currVer = Loader.instance()
                 .activeModContainer()
@@ -250,9 +357,7 @@ public class SaveLoadHandler {
 
     private void loadProgress() {
         if (fileProgress.exists()) {
-            JsonObject json = JsonHelper.ReadFromFile(fileProgress);
-
-            NBTTagCompound nbt = NBTConverter.JSONtoNBT_Object(json, new NBTTagCompound(), true);
+            NBTTagCompound nbt = JsonHelper.ReadNBTFromFile(fileProgress, true);
             QuestDatabase.INSTANCE.readProgressFromNBT(nbt.getTagList("questProgress", 10), false);
 
             // Mark all data as dirty to migrate the file to the new format
@@ -264,40 +369,113 @@ public class SaveLoadHandler {
                     qi.getUsersWithCompletionData(usersFound);
                 }
             }
-            dirtyPlayers.addAll(usersFound);
+            DirtyPlayerMarker.markDirty(usersFound);
         }
 
-        getPlayerProgressFiles().forEach(file -> {
-            JsonObject json = JsonHelper.ReadFromFile(file);
-            NBTTagCompound nbt = NBTConverter.JSONtoNBT_Object(json, new NBTTagCompound(), true);
-            QuestDatabase.INSTANCE.readProgressFromNBT(nbt.getTagList("questProgress", 10), true);
-        });
+        unloadedProgress.clear();
+        final Map<UUID, File> progressFiles = getPlayerProgressFiles();
+
+        if (BQ_Settings.lazyProgress) {
+            unloadedProgress.putAll(progressFiles);
+            BetterQuesting.logger.info("Deferred loading progress for " + progressFiles.size() + " players");
+            checkGlobalQuests();
+        } else {
+            progressFiles.forEach(this::loadPlayerProgress);
+        }
     }
 
-    private void LoadParties() {
-        JsonObject json = JsonHelper.ReadFromFile(fileParties);
+    /**
+     * Global quests are completed by whoever finished them first, so everyone's progress has to be present while one
+     * exists. Call this whenever quests may have been made global, e.g. after edits or imports.
+     */
+    public void checkGlobalQuests() {
+        if (unloadedProgress.isEmpty()) return;
+
+        if (QuestDatabase.INSTANCE.values()
+            .stream()
+            .anyMatch(quest -> quest.getProperty(NativeProps.GLOBAL))) {
+            BetterQuesting.logger.info("Loading " + unloadedProgress.size() + " players' progress for global quests");
+            ensureAllLoaded();
+        }
+    }
+
+    /**
+     * Merges the stored progress of the given player into the quest database if it hasn't been already.
+     * Must be called before reading or modifying the progress of a player that may not have logged in yet.
+     */
+    public void ensureLoaded(UUID player) {
+        File file = unloadedProgress.remove(player);
+        if (file != null) {
+            loadPlayerProgress(player, file);
+        }
+    }
+
+    public void ensureLoaded(Collection<UUID> players) {
+        for (UUID player : players) {
+            ensureLoaded(player);
+        }
+    }
 
-        NBTTagCompound nbt = NBTConverter.JSONtoNBT_Object(json, new NBTTagCompound(), true);
+    /**
+     * Loads the given player and every member of their party
+     */
+    public void ensureLoadedWithParty(UUID player) {
+        ensureLoaded(player);
+
+        DBEntry<IParty> party = PartyManager.INSTANCE.getParty(player);
+        if (party != null) {
+            ensureLoaded(
+                party.getValue()
+                    .getMembers());
+        }
+    }
+
+    public void ensureAllLoaded() {
+        ensureLoaded(new ArrayList<>(unloadedProgress.keySet()));
+    }
+
+    /**
+     * Every player that has progress stored on disk or waiting to be saved
+     */
+    public Set<UUID> getPlayersWithProgress() {
+        Set<UUID> players = new HashSet<>(getPlayerProgressFiles().keySet());
+        players.addAll(DirtyPlayerMarker.getDirty());
+        return players;
+    }
+
+    public boolean isLoaded(UUID player) {
+        return !unloadedProgress.containsKey(player);
+    }
+
+    private void loadPlayerProgress(UUID player, File file) {
+        NBTTagCompound nbt = readPlayerProgress(file);
+        QuestDatabase.INSTANCE.readProgressFromNBT(nbt.getTagList("questProgress", 10), true);
+
+        // Legacy JSON files get rewritten in the binary format on the next save
+        if (file.getName()
+            .endsWith(".json")) {
+            DirtyPlayerMarker.markDirty(player);
+        }
+    }
+
+    private void LoadParties() {
+        NBTTagCompound nbt = JsonHelper.ReadNBTFromFile(fileParties, true);
         PartyManager.INSTANCE.readFromNBT(nbt.getTagList("parties", 10), false);
     }
 
     private void loadNames() {
         NameCache.INSTANCE.reset();
-        JsonObject json = JsonHelper.ReadFromFile(fileNames);
-
-        NBTTagCompound nbt = NBTConverter.JSONtoNBT_Object(json, new NBTTagCompound(), true);
+        NBTTagCompound nbt = JsonHelper.ReadNBTFromFile(fileNames, true);
         NameCache.INSTANCE.readFromNBT(nbt.getTagList("nameCache", 10), false);
     }
 
     private void loadLives() {
         LifeDatabase.INSTANCE.reset();
-        JsonObject json = JsonHelper.ReadFromFile(fileLives);
-
-        NBTTagCompound nbt = NBTConverter.JSONtoNBT_Object(json, new NBTTagCompound(), true);
+        NBTTagCompound nbt = JsonHelper.ReadNBTFromFile(fileLives, true);
         LifeDatabase.INSTANCE.readFromNBT(nbt.getCompoundTag("lifeDatabase"), false);
     }
 
-    private Future<Void> saveConfig() {
+    private void saveConfig(SaveJob job) {
         NBTTagCompound json = new NBTTagCompound();
 
         json.setTag("questSettings", QuestSettings.INSTANCE.writeToNBT(new NBTTagCompound()));
@@ -311,14 +489,14 @@ public class SaveLoadHandler {
                 .activeModContainer()
                 .getVersion());
 
-        return JsonHelper.WriteToFile2(fileDatabase, out -> NBTConverter.NBTtoJSON_Compound(json, out, true));
+        writeJson(job, fileDatabase, json, null);
     }
 
-    private List<Future<Void>> saveProgress() {
-        final List<Future<Void>> futures = dirtyPlayers.stream()
-            .map(this::savePlayerProgress)
-            .collect(Collectors.toList());
-        dirtyPlayers.clear();
+    private void saveProgress(SaveJob job) {
+        for (UUID player : DirtyPlayerMarker.drain()) {
+            job.add(new File(dirProgress, player.toString() + ".dat"), savePlayerProgress(player));
+        }
+
         if (fileProgress != null && fileProgress.exists()) {
             String backupName = fileProgress.getName()
                 .replace(".json", ".backup.json");
@@ -330,34 +508,130 @@ public class SaveLoadHandler {
                 BetterQuesting.logger.warn("Could not move old progress data out of the way {}", backupName, e);
             }
         }
-        return futures;
     }
 
-    private Future<Void> saveParties() {
+    private void saveParties(SaveJob job) {
+        final long revision = PartyManager.INSTANCE.getRevision();
+        if (revision == partiesRevision && fileParties.exists()) {
+            job.skip(fileParties);
+            return;
+        }
+
         NBTTagCompound json = new NBTTagCompound();
 
         json.setTag("parties", PartyManager.INSTANCE.writeToNBT(new NBTTagList(), null));
 
-        return JsonHelper.WriteToFile2(fileParties, out -> NBTConverter.NBTtoJSON_Compound(json, out, true));
+        writeJson(job, fileParties, json, () -> partiesRevision = revision);
     }
 
-    private Future<Void> saveNames() {
+    private void saveNames(SaveJob job) {
+        // Nothing changed since the last write, don't even build the tag
+        final long revision = NameCache.INSTANCE.getRevision();
+        if (revision == namesRevision && fileNames.exists()) {
+            job.skip(fileNames);
+            return;
+        }
+
         NBTTagCompound json = new NBTTagCompound();
 
         json.setTag("nameCache", NameCache.INSTANCE.writeToNBT(new NBTTagList(), null));
 
-        return JsonHelper.WriteToFile2(fileNames, out -> NBTConverter.NBTtoJSON_Compound(json, out, true));
+        writeJson(job, fileNames, json, () -> namesRevision = revision);
     }
 
-    private Future<Void> saveLives() {
+    private void saveLives(SaveJob job) {
+        final long revision = LifeDatabase.INSTANCE.getRevision();
+        if (revision == livesRevision && fileLives.exists()) {
+            job.skip(fileLives);
+            return;
+        }
+
         NBTTagCompound json = new NBTTagCompound();
 
         json.setTag("lifeDatabase", LifeDatabase.INSTANCE.writeToNBT(new NBTTagCompound(), null));
 
-        return JsonHelper.WriteToFile2(fileLives, out -> NBTConverter.NBTtoJSON_Compound(json, out, true));
+        writeJson(job, fileLives, json, () -> livesRevision = revision);
+    }
+
+    /**
+     * Serializes the tag in memory on the disk writer and only replaces the file when the output differs from what was
+     * last written to it
+     */
+    private void writeJson(SaveJob job, File file, NBTTagCompound json, @Nullable Runnable onWritten) {
+        // Databases may hand out live tags and arrays that keep changing here, so the writer gets its own copy
+        final NBTTagCompound snapshot = (NBTTagCompound) json.copy();
+
+        job.add(file, BQThreadedIO.DISK_WRITE.enqueue(() -> {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (JsonWriter out = new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8))) {
+                out.setIndent("\t");
+                NBTConverter.NBTtoJSON_Compound(snapshot, out, true);
+            }
+
+            byte[] data = buffer.toByteArray();
+            long hash = Hashing.murmur3_128()
+                .hashBytes(data)
+                .asLong();
+            Long previous = writtenHashes.get(file);
+
+            if (previous != null && previous == hash && file.exists()) {
+                job.skip(file);
+            } else {
+                File tmp = new File(file.getAbsolutePath() + ".tmp");
+                if (tmp.getParentFile() != null) tmp.getParentFile()
+                    .mkdirs();
+                Files.write(tmp.toPath(), data);
+
+                try {
+                    Files.move(
+                        tmp.toPath(),
+                        file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ignored) {
+                    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                writtenHashes.put(file, hash);
+            }
+
+            if (onWritten != null) onWritten.run();
+            return null;
+        }));
     }
 
     public Future<Void> savePlayerProgress(UUID player) {
+        // Writing a player that was never loaded would replace their file with whatever partial data exists in memory
+        if (!isLoaded(player)) {
+            BetterQuesting.logger.warn("Progress for " + player + " was modified before being loaded");
+
+            // The stored progress goes underneath, the changes that triggered this save are newer and win
+            NBTTagList live = QuestDatabase.INSTANCE
+                .writeProgressToNBT(new NBTTagList(), Collections.singletonList(player));
+            ensureLoaded(player);
+            QuestDatabase.INSTANCE.readProgressFromNBT(live, true);
+        }
+
+        NBTTagCompound json = new NBTTagCompound();
+
+        json.setTag(
+            "questProgress",
+            QuestDatabase.INSTANCE.writeProgressToNBT(new NBTTagList(), Collections.singletonList(player)));
+
+        // Offline players won't gain progress until they log back in, so there's no point keeping their index around
+        if (MinecraftServer.getServer() == null || QuestingAPI.getPlayer(player) == null) {
+            QuestDatabase.INSTANCE.evictTouchedQuests(player);
+        }
+
+        return writeCompressed(new File(dirProgress, player.toString() + ".dat"), json, player);
+    }
+
+    /**
+     * Writes the given player's progress out as plain JSON, the format used by older versions
+     */
+    public Future<Void> exportPlayerProgress(UUID player, File dir) {
+        ensureLoaded(player);
+
         NBTTagCompound json = new NBTTagCompound();
 
         json.setTag(
@@ -365,20 +639,147 @@ public class SaveLoadHandler {
             QuestDatabase.INSTANCE.writeProgressToNBT(new NBTTagList(), Collections.singletonList(player)));
 
         return JsonHelper.WriteToFile2(
-            new File(dirProgress, player.toString() + ".json"),
+            new File(dir, player.toString() + ".json"),
             out -> NBTConverter.NBTtoJSON_Compound(json, out, true));
     }
 
-    private List<File> getPlayerProgressFiles() {
+    /**
+     * Replaces the given player's progress with the contents of a JSON progress file
+     */
+    public void importPlayerProgress(UUID player, File file) {
+        ensureLoaded(player);
+
+        for (IQuest quest : QuestDatabase.INSTANCE.values()) {
+            quest.resetUser(player, true);
+        }
+
+        NBTTagCompound nbt = JsonHelper.ReadNBTFromFile(file, true);
+        QuestDatabase.INSTANCE.readProgressFromNBT(nbt.getTagList("questProgress", 10), true);
+
+        DirtyPlayerMarker.markDirty(player);
+    }
+
+    private NBTTagCompound readPlayerProgress(File file) {
+        if (file.getName()
+            .endsWith(".json")) {
+            return JsonHelper.ReadNBTFromFile(file, true);
+        }
+
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return CompressedStreamTools.readCompressed(fis);
+        } catch (Exception e) {
+            BetterQuesting.logger.error("An error occurred while loading progress from file " + file, e);
+            JsonHelper.CopyPaste(file, new File(file.getParent(), "malformed_" + file.getName()));
+            return new NBTTagCompound();
+        }
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private Future<Void> writeCompressed(File file, NBTTagCompound nbt, UUID player) {
+        final File tmp = new File(file.getAbsolutePath() + ".tmp");
+        final File legacy = new File(file.getParentFile(), player.toString() + ".json");
+        final NBTTagCompound snapshot = (NBTTagCompound) nbt.copy();
+
+        return BQThreadedIO.DISK_WRITE.enqueue(() -> {
+            try {
+                if (tmp.getParentFile() != null) tmp.getParentFile()
+                    .mkdirs();
+
+                try (FileOutputStream fos = new FileOutputStream(tmp)) {
+                    CompressedStreamTools.writeCompressed(snapshot, fos);
+                }
+
+                try {
+                    Files.move(
+                        tmp.toPath(),
+                        file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ignored) {
+                    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                // The binary copy is now authoritative
+                if (legacy.exists()) legacy.delete();
+            } catch (Exception e) {
+                BetterQuesting.logger.error("An error occurred while saving progress to file " + file, e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Lists the progress file of every player, preferring the binary format over legacy JSON when both exist
+     */
+    private Map<UUID, File> getPlayerProgressFiles() {
+        final Map<UUID, File> found = new HashMap<>();
         final File[] files = dirProgress.listFiles();
         if (files == null) {
-            return new ArrayList<>();
+            return found;
+        }
+
+        for (File file : files) {
+            String name = file.getName();
+            boolean binary = name.endsWith(".dat");
+            if (!binary && !name.endsWith(".json")) {
+                continue;
+            }
+
+            UUID player;
+            try {
+                player = UUID.fromString(name.substring(0, name.lastIndexOf('.')));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            if (binary || !found.containsKey(player)) {
+                found.put(player, file);
+            }
         }
-        return Arrays.stream(files)
-            .filter(
-                f -> f.getName()
-                    .endsWith(".json"))
-            .collect(Collectors.toList());
+        return found;
     }
 
+    private static final class SaveJob {
+
+        private final long started = System.nanoTime();
+        private final Map<File, Future<Void>> writes = new HashMap<>();
+        private final Set<File> skipped = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        private long snapshotNanos;
+
+        private void add(File file, Future<Void> write) {
+            writes.put(file, write);
+        }
+
+        private void skip(File file) {
+            skipped.add(file);
+        }
+
+        private boolean isDone() {
+            for (Future<Void> write : writes.values()) {
+                if (!write.isDone()) return false;
+            }
+            return true;
+        }
+    }
+
+    public static final class SaveReport {
+
+        // Names of the shared database files that were written
+        public final List<String> written;
+        public final int progressFiles;
+        public final int skipped;
+        public final long bytes;
+        public final long snapshotMillis;
+        public final long totalMillis;
+
+        private SaveReport(List<String> written, int progressFiles, int skipped, long bytes, long snapshotMillis,
+            long totalMillis) {
+            this.written = Collections.unmodifiableList(written);
+            this.progressFiles = progressFiles;
+            this.skipped = skipped;
+            this.bytes = bytes;
+            this.snapshotMillis = snapshotMillis;
+            this.totalMillis = totalMillis;
+        }
+    }
 }
@@ -1,22 +1,20 @@
 package betterquesting.network;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
-import java.util.zip.GZIPInputStream;
 
 import net.minecraft.nbt.CompressedStreamTools;
-import net.minecraft.nbt.NBTTagByteArray;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.util.MathHelper;
 
 import betterquesting.core.BetterQuesting;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 
 public final class PacketAssembly {
 
@@ -24,95 +22,91 @@ public final class PacketAssembly {
 
     // TODO: Allow for simultaneous packet assembly (may not be necessary)
     // TODO: Implement PROPER thread safety that doesn't cause dirty read/writes
-    // TODO: Add a scheduler to bulk up multiple data packets to send on the next tick (also may be unnecessary)
     // Player assigned packet buffers
-    private final HashMap<UUID, byte[]> buffer = new HashMap<>();
+    private final HashMap<UUID, ByteBuf> buffer = new HashMap<>();
 
     // Internal server packet buffer (server to server or client side)
-    private byte[] serverBuf = null;
+    private ByteBuf serverBuf = null;
     // private int id = 0;
 
     private static final int bufSize = 20480; // 20KB
 
-    public List<NBTTagCompound> splitPacket(NBTTagCompound tags) {
+    /**
+     * Compresses the tags into a single pooled buffer and returns fragments that are slices of it. Every returned
+     * packet must be released with {@link PacketQuesting#release()} once sent
+     */
+    public List<PacketQuesting> splitPacket(NBTTagCompound tags) {
+        ByteBuf data = PooledByteBufAllocator.DEFAULT.heapBuffer(bufSize);
+
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            CompressedStreamTools.writeCompressed(tags, baos);
-            baos.flush();
-            byte[] data = baos.toByteArray();
-            baos.close();
-            int req = MathHelper.ceiling_float_int(data.length / (float) bufSize);
-            List<NBTTagCompound> pkts = new ArrayList<>(req);
+            CompressedStreamTools.writeCompressed(tags, new ByteBufOutputStream(data));
+            int size = data.readableBytes();
+            int req = Math.max(1, (size + bufSize - 1) / bufSize);
+            List<PacketQuesting> pkts = new ArrayList<>(req);
 
             for (int p = 0; p < req; p++) {
                 int idx = p * bufSize;
-                int s = Math.min(data.length - idx, bufSize);
-                NBTTagCompound container = new NBTTagCompound();
-                byte[] part = new byte[s];
-
-                System.arraycopy(data, idx, part, 0, s);
-
-                container.setInteger("size", data.length); // If the buffer isn't yet created, how big is it
-                container.setInteger("index", idx); // Where should this piece start writing too
-                container.setBoolean("end", p == req - 1);
-                container.setTag("data", new NBTTagByteArray(part)); // The raw byte data to write
+                int s = Math.min(size - idx, bufSize);
 
-                pkts.add(container);
+                // Slices share the backing buffer, each holding its own reference to it
+                ByteBuf part = data.slice(idx, s)
+                    .retain();
+                pkts.add(new PacketQuesting(part, size, idx, p == req - 1));
             }
 
             return pkts;
         } catch (Exception e) {
             BetterQuesting.logger.error("Unable to split build packet!", e);
             return Collections.emptyList();
+        } finally {
+            data.release();
         }
     }
 
     /**
-     * Appends a packet onto the buffer and returns an assembled NBTTagCompound when complete
+     * Appends a fragment onto the buffer and returns an assembled NBTTagCompound when complete. Takes ownership of the
+     * given data
      */
-    public NBTTagCompound assemblePacket(UUID owner, NBTTagCompound tags) {
-        int size = tags.getInteger("size");
-        int index = tags.getInteger("index");
-        boolean end = tags.getBoolean("end");
-        byte[] data = tags.getByteArray("data");
-
-        byte[] tmp = getBuffer(owner);
-
-        if (tmp == null) {
-            tmp = new byte[size];
-            setBuffer(owner, tmp);
-        } else if (tmp.length != size) {
-            BetterQuesting.logger.error("Unexpected change in BQ packet byte length: " + size + " > " + tmp.length);
-            clearBuffer(owner);
-            return null;
-        }
+    public NBTTagCompound assemblePacket(UUID owner, int size, int index, boolean end, ByteBuf data) {
+        try {
+            ByteBuf tmp = getBuffer(owner);
+
+            if (tmp == null) {
+                tmp = PooledByteBufAllocator.DEFAULT.heapBuffer(size, size);
+                setBuffer(owner, tmp);
+            } else if (tmp.capacity() != size) {
+                BetterQuesting.logger
+                    .error("Unexpected change in BQ packet byte length: " + size + " > " + tmp.capacity());
+                clearBuffer(owner);
+                return null;
+            }
 
-        System.arraycopy(data, 0, tmp, index, data.length);
-        /*
-         * for(int i = 0; i < data.length && index + i < size; i++)
-         * {
-         * tmp[index + i] = data[i];
-         * }
-         */
-
-        if (end) {
-            clearBuffer(owner);
-
-            try {
-                DataInputStream dis = new DataInputStream(
-                    new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(tmp))));
-                NBTTagCompound tag = CompressedStreamTools.read(dis);
-                dis.close();
-                return tag;
-            } catch (Exception e) {
-                throw new RuntimeException("Unable to assemble BQ packet", e);
+            tmp.setBytes(index, data, data.readerIndex(), data.readableBytes());
+            tmp.writerIndex(Math.max(tmp.writerIndex(), index + data.readableBytes()));
+
+            if (end) {
+                try {
+                    return readCompressed(new ByteBufInputStream(tmp, size));
+                } catch (Exception e) {
+                    throw new RuntimeException("Unable to assemble BQ packet", e);
+                } finally {
+                    clearBuffer(owner);
+                }
             }
+
+            return null;
+        } finally {
+            data.release();
         }
+    }
 
-        return null;
+    public static NBTTagCompound readCompressed(InputStream in) throws Exception {
+        try (InputStream stream = in) {
+            return CompressedStreamTools.readCompressed(stream);
+        }
     }
 
-    public byte[] getBuffer(UUID owner) {
+    public ByteBuf getBuffer(UUID owner) {
         if (owner == null) {
             return serverBuf;
         } else {
@@ -122,7 +116,7 @@ public final class PacketAssembly {
         }
     }
 
-    public void setBuffer(UUID owner, byte[] value) {
+    public void setBuffer(UUID owner, ByteBuf value) {
         if (owner == null) {
             serverBuf = value;
         } else {
@@ -138,12 +132,19 @@ public final class PacketAssembly {
     }
 
     public void clearBuffer(UUID owner) {
+        ByteBuf old;
+
         if (owner == null) {
+            old = serverBuf;
             serverBuf = null;
         } else {
             synchronized (buffer) {
-                buffer.remove(owner);
+                old = buffer.remove(owner);
             }
         }
+
+        if (old != null) {
+            old.release();
+        }
     }
 }
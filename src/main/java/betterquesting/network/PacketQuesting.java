@@ -1,5 +1,6 @@
 package betterquesting.network;
 
+import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
@@ -14,40 +15,86 @@ import betterquesting.api.api.QuestingAPI;
 import betterquesting.api2.utils.Tuple2;
 import betterquesting.core.BetterQuesting;
 import betterquesting.handlers.EventHandler;
-import cpw.mods.fml.common.network.ByteBufUtils;
 import cpw.mods.fml.common.network.simpleimpl.IMessage;
 import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
 import cpw.mods.fml.common.network.simpleimpl.MessageContext;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 
 public class PacketQuesting implements IMessage {
 
-    protected NBTTagCompound tags = new NBTTagCompound();
+    // Set directly when the whole message arrived in a single fragment
+    protected NBTTagCompound tags = null;
+
+    // Fragment header and the compressed bytes it carries
+    private int size;
+    private int index;
+    private boolean end;
+    private ByteBuf data;
 
     @SuppressWarnings("unused")
     public PacketQuesting() // For use only by forge
     {}
 
-    public PacketQuesting(NBTTagCompound tags) // Use PacketDataTypes to instantiate new packets
+    PacketQuesting(ByteBuf data, int size, int index, boolean end) // Use PacketAssembly to instantiate new packets
     {
-        this.tags = tags;
+        this.data = data;
+        this.size = size;
+        this.index = index;
+        this.end = end;
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
-        tags = ByteBufUtils.readTag(buf);
+        size = buf.readInt();
+        index = buf.readInt();
+        end = buf.readBoolean();
+        int length = buf.readableBytes();
+
+        if (index == 0 && end) {
+            // Decode straight from the network buffer, nothing needs to be kept for assembly
+            try {
+                tags = PacketAssembly.readCompressed(new ByteBufInputStream(buf, length));
+            } catch (Exception e) {
+                throw new RuntimeException("Unable to read BQ packet", e);
+            }
+        } else {
+            data = buf.readBytes(length);
+        }
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
-        ByteBufUtils.writeTag(buf, tags);
+        buf.writeInt(size);
+        buf.writeInt(index);
+        buf.writeBoolean(end);
+        buf.writeBytes(data, data.readerIndex(), data.readableBytes());
+    }
+
+    /**
+     * Releases the fragment's reference to the shared send buffer
+     */
+    public void release() {
+        if (data != null) {
+            data.release();
+            data = null;
+        }
+    }
+
+    private NBTTagCompound assemble(UUID owner) {
+        if (tags != null) return tags;
+
+        ByteBuf fragment = data;
+        data = null;
+        return PacketAssembly.INSTANCE.assemblePacket(owner, size, index, end, fragment);
     }
 
     public static class HandleServer implements IMessageHandler<PacketQuesting, IMessage> {
 
         @Override
         public IMessage onMessage(PacketQuesting packet, MessageContext ctx) {
-            if (packet == null || packet.tags == null || ctx.getServerHandler().playerEntity.mcServer == null) {
+            if (packet == null || (packet.tags == null && packet.data == null)
+                || ctx.getServerHandler().playerEntity.mcServer == null) {
                 BetterQuesting.logger.log(
                     Level.ERROR,
                     "A critical NPE error occured during while handling a BetterQuesting packet server side",
@@ -56,8 +103,7 @@ public class PacketQuesting implements IMessage {
             }
 
             final EntityPlayerMP sender = ctx.getServerHandler().playerEntity;
-            final NBTTagCompound message = PacketAssembly.INSTANCE
-                .assemblePacket(sender == null ? null : QuestingAPI.getQuestingUUID(sender), packet.tags);
+            final NBTTagCompound message = packet.assemble(sender == null ? null : QuestingAPI.getQuestingUUID(sender));
 
             if (message == null) {
                 return null;
@@ -85,7 +131,7 @@ public class PacketQuesting implements IMessage {
 
         @Override
         public IMessage onMessage(PacketQuesting packet, MessageContext ctx) {
-            if (packet == null || packet.tags == null) {
+            if (packet == null || (packet.tags == null && packet.data == null)) {
                 BetterQuesting.logger.log(
                     Level.ERROR,
                     "A critical NPE error occured during while handling a BetterQuesting packet client side",
@@ -93,7 +139,7 @@ public class PacketQuesting implements IMessage {
                 return null;
             }
 
-            final NBTTagCompound message = PacketAssembly.INSTANCE.assemblePacket(null, packet.tags);
+            final NBTTagCompound message = packet.assemble(null);
 
             if (message == null) {
                 return null;
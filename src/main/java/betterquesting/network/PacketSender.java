@@ -1,49 +1,116 @@
 package betterquesting.network;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
 
 import net.minecraft.entity.player.EntityPlayerMP;
-import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
 
 import betterquesting.api.network.IPacketSender;
 import betterquesting.api.network.QuestingPacket;
+import betterquesting.api.storage.BQ_Settings;
 import betterquesting.api2.utils.BQThreadedIO;
 import betterquesting.core.BetterQuesting;
+import betterquesting.network.handlers.NetBulkSync;
+import betterquesting.network.handlers.NetQuestSync;
 import cpw.mods.fml.common.network.NetworkRegistry.TargetPoint;
 
 public class PacketSender implements IPacketSender {
 
     public static final PacketSender INSTANCE = new PacketSender();
 
+    // Players that missed a dropped send. Guarded by itself, along with resyncAll
+    private static final Set<EntityPlayerMP> resync = new LinkedHashSet<>();
+    private static boolean resyncAll = false;
+
+    /**
+     * Queues a send on the encode thread. A full queue drops it rather than stalling the caller, the players it was
+     * meant for then get a full sync once the queue has drained
+     *
+     * @param players Who the send is for, or null if it could reach anyone online
+     */
+    public static void encode(@Nullable EntityPlayerMP[] players, Runnable job) {
+        if (BQThreadedIO.NETWORK_ENCODE.offer(job)) return;
+
+        synchronized (resync) {
+            if (players == null) {
+                resyncAll = true;
+            } else {
+                Collections.addAll(resync, players);
+            }
+        }
+    }
+
+    /**
+     * Sends a full sync to the online players that missed a dropped send, once the encode queue is back under half of
+     * its limit. Called at the end of every server tick
+     */
+    public static void resyncDropped(MinecraftServer server) {
+        List<EntityPlayerMP> targets;
+
+        synchronized (resync) {
+            if (!resyncAll && resync.isEmpty()) return;
+            if (BQThreadedIO.NETWORK_ENCODE.getQueueDepth() > BQ_Settings.ioQueueLimit / 2) return;
+
+            // noinspection unchecked
+            List<EntityPlayerMP> online = server.getConfigurationManager().playerEntityList;
+            targets = new ArrayList<>(online);
+            if (!resyncAll) targets.retainAll(resync);
+
+            resync.clear();
+            resyncAll = false;
+        }
+
+        for (EntityPlayerMP player : targets) {
+            NetBulkSync.sendSync(player);
+        }
+    }
+
     @Override
     public void sendToPlayers(QuestingPacket payload, EntityPlayerMP... players) {
+        NetQuestSync.flushBefore(players);
         payload.getPayload()
             .setString(
                 "ID",
                 payload.getHandler()
                     .toString());
 
-        BQThreadedIO.INSTANCE.enqueue(() -> {
-            List<NBTTagCompound> fragments = PacketAssembly.INSTANCE.splitPacket(payload.getPayload());
-            for (EntityPlayerMP p : players) {
-                for (NBTTagCompound tag : fragments) {
-                    BetterQuesting.instance.network.sendTo(new PacketQuesting(tag), p);
+        encode(players, () -> {
+            List<PacketQuesting> fragments = PacketAssembly.INSTANCE.splitPacket(payload.getPayload());
+            try {
+                for (EntityPlayerMP p : players) {
+                    for (PacketQuesting fragment : fragments) {
+                        BetterQuesting.instance.network.sendTo(fragment, p);
+                    }
                 }
+            } finally {
+                fragments.forEach(PacketQuesting::release);
             }
         });
     }
 
     @Override
     public void sendToAll(QuestingPacket payload) {
+        NetQuestSync.flushBefore(null);
         payload.getPayload()
             .setString(
                 "ID",
                 payload.getHandler()
                     .toString());
 
-        BQThreadedIO.INSTANCE.enqueue(() -> {
-            for (NBTTagCompound p : PacketAssembly.INSTANCE.splitPacket(payload.getPayload())) {
-                BetterQuesting.instance.network.sendToAll(new PacketQuesting(p));
+        encode(null, () -> {
+            List<PacketQuesting> fragments = PacketAssembly.INSTANCE.splitPacket(payload.getPayload());
+            try {
+                for (PacketQuesting p : fragments) {
+                    BetterQuesting.instance.network.sendToAll(p);
+                }
+            } finally {
+                fragments.forEach(PacketQuesting::release);
             }
         });
     }
@@ -56,39 +123,57 @@ public class PacketSender implements IPacketSender {
                 payload.getHandler()
                     .toString());
 
-        BQThreadedIO.INSTANCE.enqueue(() -> {
-            for (NBTTagCompound p : PacketAssembly.INSTANCE.splitPacket(payload.getPayload())) {
-                BetterQuesting.instance.network.sendToServer(new PacketQuesting(p));
+        // The server can't be resynced from here, a dropped request is only logged
+        BQThreadedIO.NETWORK_ENCODE.enqueue(() -> {
+            List<PacketQuesting> fragments = PacketAssembly.INSTANCE.splitPacket(payload.getPayload());
+            try {
+                for (PacketQuesting p : fragments) {
+                    BetterQuesting.instance.network.sendToServer(p);
+                }
+            } finally {
+                fragments.forEach(PacketQuesting::release);
             }
         });
     }
 
     @Override
     public void sendToAround(QuestingPacket payload, TargetPoint point) {
+        NetQuestSync.flushBefore(null);
         payload.getPayload()
             .setString(
                 "ID",
                 payload.getHandler()
                     .toString());
 
-        BQThreadedIO.INSTANCE.enqueue(() -> {
-            for (NBTTagCompound p : PacketAssembly.INSTANCE.splitPacket(payload.getPayload())) {
-                BetterQuesting.instance.network.sendToAllAround(new PacketQuesting(p), point);
+        encode(null, () -> {
+            List<PacketQuesting> fragments = PacketAssembly.INSTANCE.splitPacket(payload.getPayload());
+            try {
+                for (PacketQuesting p : fragments) {
+                    BetterQuesting.instance.network.sendToAllAround(p, point);
+                }
+            } finally {
+                fragments.forEach(PacketQuesting::release);
             }
         });
     }
 
     @Override
     public void sendToDimension(QuestingPacket payload, int dimension) {
+        NetQuestSync.flushBefore(null);
         payload.getPayload()
             .setString(
                 "ID",
                 payload.getHandler()
                     .toString());
 
-        BQThreadedIO.INSTANCE.enqueue(() -> {
-            for (NBTTagCompound p : PacketAssembly.INSTANCE.splitPacket(payload.getPayload())) {
-                BetterQuesting.instance.network.sendToDimension(new PacketQuesting(p), dimension);
+        encode(null, () -> {
+            List<PacketQuesting> fragments = PacketAssembly.INSTANCE.splitPacket(payload.getPayload());
+            try {
+                for (PacketQuesting p : fragments) {
+                    BetterQuesting.instance.network.sendToDimension(p, dimension);
+                }
+            } finally {
+                fragments.forEach(PacketQuesting::release);
             }
         });
     }
@@ -21,7 +21,6 @@ import betterquesting.api.events.DatabaseEvent.DBType;
 import betterquesting.api.network.QuestingPacket;
 import betterquesting.api.questing.IQuestLine;
 import betterquesting.api.utils.NBTConverter;
-import betterquesting.api2.utils.BQThreadedIO;
 import betterquesting.api2.utils.Tuple2;
 import betterquesting.core.BetterQuesting;
 import betterquesting.network.PacketSender;
@@ -47,7 +46,9 @@ public class NetChapterSync {
             return;
         }
 
-        BQThreadedIO.INSTANCE.enqueue(() -> {
+        EntityPlayerMP[] players = player == null ? null : new EntityPlayerMP[] { player };
+        NetQuestSync.flushBefore(players);
+        PacketSender.encode(players, () -> {
             NBTTagList data = new NBTTagList();
             final Map<UUID, IQuestLine> chapterSubset = chapterIDs == null ? QuestLineDatabase.INSTANCE
                 : QuestLineDatabase.INSTANCE.filterKeys(chapterIDs);
@@ -127,6 +127,7 @@ public class NetImport {
             QuestLineDatabase.INSTANCE.put(QuestLineDatabase.INSTANCE.generateKey(), questLine);
         }
 
+        SaveLoadHandler.INSTANCE.checkGlobalQuests();
         SaveLoadHandler.INSTANCE.markDirty();
         NetQuestSync.quickSync(null, true, true);
         NetChapterSync.sendSync(null, null);
@@ -131,6 +131,7 @@ public class NetQuestEdit {
             }
         }
 
+        SaveLoadHandler.INSTANCE.checkGlobalQuests();
         SaveLoadHandler.INSTANCE.markDirty();
         NetQuestSync.sendSync(null, questIDs, true, false);
     }
@@ -160,6 +161,8 @@ public class NetQuestEdit {
             return;
         }
 
+        SaveLoadHandler.INSTANCE.ensureLoaded(targetID);
+
         EntityPlayerMP player = null;
         for (Object o : server.getConfigurationManager().playerEntityList) {
             if (((EntityPlayerMP) o).getGameProfile()
@@ -245,6 +248,7 @@ public class NetQuestEdit {
             }
         }
 
+        SaveLoadHandler.INSTANCE.checkGlobalQuests();
         SaveLoadHandler.INSTANCE.markDirty();
         NetQuestSync.sendSync(null, questIDs, true, false);
     }
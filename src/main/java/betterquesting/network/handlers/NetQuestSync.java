@@ -1,11 +1,20 @@
 package betterquesting.network.handlers;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nullable;
 
@@ -23,7 +32,9 @@ import betterquesting.api.events.DatabaseEvent;
 import betterquesting.api.events.DatabaseEvent.DBType;
 import betterquesting.api.network.QuestingPacket;
 import betterquesting.api.questing.IQuest;
+import betterquesting.api.questing.tasks.ITask;
 import betterquesting.api.utils.NBTConverter;
+import betterquesting.api2.storage.DBEntry;
 import betterquesting.api2.utils.BQThreadedIO;
 import betterquesting.api2.utils.Tuple2;
 import betterquesting.core.BetterQuesting;
@@ -38,6 +49,15 @@ public class NetQuestSync {
 
     private static final ResourceLocation ID_NAME = new ResourceLocation("betterquesting:quest_sync");
 
+    // Keyed by recipient, null being everyone
+    private static final Map<EntityPlayerMP, PendingSync> pending = new LinkedHashMap<>();
+    private static final AtomicLong REQUESTED = new AtomicLong();
+    private static final AtomicLong MERGED = new AtomicLong();
+    private static final AtomicLong SENT = new AtomicLong();
+
+    // Progress revisions each player has acknowledged, keyed by questing UUID then quest ID
+    private static final Map<UUID, Map<UUID, QuestAck>> acknowledged = new ConcurrentHashMap<>();
+
     public static void registerHandler() {
         PacketTypeRegistry.INSTANCE.registerServerHandler(ID_NAME, NetQuestSync::onServer);
 
@@ -76,44 +96,190 @@ public class NetQuestSync {
         sendSync(player, questIDs, config, progress, false);
     }
 
+    /**
+     * Queues quest data to be sent at the end of the current server tick. Requests for the same player within a tick
+     * are merged into a single payload
+     */
     public static void sendSync(@Nullable EntityPlayerMP player, @Nullable Collection<UUID> questIDs, boolean config,
         boolean progress, boolean resetCompletion) {
+        queueSync(player, questIDs, config, progress, resetCompletion, false);
+    }
+
+    private static void queueSync(@Nullable EntityPlayerMP player, @Nullable Collection<UUID> questIDs,
+        boolean config, boolean progress, boolean resetCompletion, boolean ignoreAcks) {
         if ((!config && !progress) || (questIDs != null && questIDs.isEmpty())) {
             return;
         }
 
+        REQUESTED.incrementAndGet();
+
+        synchronized (pending) {
+            PendingSync sync = pending.get(player);
+
+            if (sync == null) {
+                pending.put(player, sync = new PendingSync());
+            } else {
+                MERGED.incrementAndGet();
+            }
+
+            sync.add(questIDs, config, progress, resetCompletion, ignoreAcks);
+        }
+    }
+
+    /**
+     * Sends everything queued by {@link #sendSync(EntityPlayerMP, Collection, boolean, boolean, boolean)}. Called once
+     * at the end of every server tick
+     */
+    public static void flushPending() {
+        flushPending(null);
+    }
+
+    /**
+     * Sends what is queued for the given players, or everyone if null, ahead of a packet about to be sent to them.
+     * Quest syncs are held back until the end of the tick, so that packet would otherwise overtake quest data that
+     * was requested before it
+     */
+    public static void flushBefore(@Nullable EntityPlayerMP[] players) {
+        // Packets built on the encode thread are already queued behind any sync that was flushed before them
+        if (!BQThreadedIO.NETWORK_ENCODE.isWorkerThread()) {
+            flushPending(players == null ? null : Arrays.asList(players));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void flushPending(@Nullable Collection<EntityPlayerMP> players) {
+        final Map<EntityPlayerMP, PendingSync> batch;
+
+        synchronized (pending) {
+            // Syncs for everyone go out too when flushing for some players, those reach them first either way
+            batch = drain(pending, players);
+            if (batch.isEmpty()) {
+                return;
+            }
+        }
+
+        MinecraftServer server = FMLCommonHandler.instance()
+            .getMinecraftServerInstance();
+        if (server == null) {
+            return;
+        }
+
+        // Players that left (or belong to a previous world) during the tick are dropped
+        Set<EntityPlayerMP> online = Collections.newSetFromMap(new IdentityHashMap<>());
+        online.addAll((List<EntityPlayerMP>) server.getConfigurationManager().playerEntityList);
+
+        for (Map.Entry<EntityPlayerMP, PendingSync> entry : batch.entrySet()) {
+            if (entry.getKey() == null || online.contains(entry.getKey())) {
+                SENT.incrementAndGet();
+                send(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Takes the entries for the given recipients, or all of them if null, out of the queue. The entry for everyone
+     * always comes first: a full config sync wipes the client's database and acknowledgements, so it must not arrive
+     * after progress queued for a player earlier in the same tick
+     */
+    static <K, V> Map<K, V> drain(Map<K, V> queue, @Nullable Collection<K> recipients) {
+        Map<K, V> batch = new LinkedHashMap<>();
+        if (queue.containsKey(null)) {
+            batch.put(null, queue.remove(null));
+        }
+
+        Iterator<Map.Entry<K, V>> iter = queue.entrySet()
+            .iterator();
+        while (iter.hasNext()) {
+            Map.Entry<K, V> entry = iter.next();
+            if (recipients == null || recipients.contains(entry.getKey())) {
+                batch.put(entry.getKey(), entry.getValue());
+                iter.remove();
+            }
+        }
+
+        return batch;
+    }
+
+    /**
+     * Drops everything the given player has acknowledged, so their next sync is sent in full
+     */
+    public static void forgetPlayer(UUID playerID) {
+        acknowledged.remove(playerID);
+    }
+
+    public static long getRequestedCount() {
+        return REQUESTED.get();
+    }
+
+    public static long getMergedCount() {
+        return MERGED.get();
+    }
+
+    public static long getSentCount() {
+        return SENT.get();
+    }
+
+    private static void send(@Nullable EntityPlayerMP player, PendingSync sync) {
         // Offload this to another thread as it could take a while to build
-        BQThreadedIO.INSTANCE.enqueue(() -> {
+        PacketSender.encode(player == null ? null : new EntityPlayerMP[] { player }, () -> {
             NBTTagList dataList = new NBTTagList();
+            final Set<UUID> questIDs = sync.getQuestIDs();
             final Map<UUID, IQuest> questSubset = questIDs == null ? QuestDatabase.INSTANCE
                 : QuestDatabase.INSTANCE.filterKeys(questIDs);
-            final List<UUID> pidList = player == null ? null
-                : Collections.singletonList(QuestingAPI.getQuestingUUID(player));
+            final UUID playerID = player == null ? null : QuestingAPI.getQuestingUUID(player);
+            final List<UUID> pidList = playerID == null ? null : Collections.singletonList(playerID);
+
+            // The client wipes its database before reading a full config sync
+            if (sync.isFullConfig()) {
+                if (playerID == null) {
+                    acknowledged.clear();
+                } else {
+                    acknowledged.remove(playerID);
+                }
+            }
+
+            final Map<UUID, QuestAck> acks = playerID == null || sync.ignoreAcks ? null : acknowledged.get(playerID);
 
             for (Map.Entry<UUID, IQuest> entry : questSubset.entrySet()) {
                 NBTTagCompound tag = new NBTTagCompound();
 
-                if (config) {
+                if (sync.hasConfig(entry.getKey())) {
                     tag.setTag(
                         "config",
                         entry.getValue()
                             .writeToNBT(new NBTTagCompound()));
                 }
 
-                if (progress) {
-                    tag.setTag(
-                        "progress",
-                        entry.getValue()
-                            .writeProgressToNBT(new NBTTagCompound(), pidList));
+                if (sync.hasProgress(entry.getKey())) {
+                    QuestAck ack = acks == null ? null : acks.get(entry.getKey());
+                    NBTTagCompound progress = ack == null ? null
+                        : writeProgressDelta(entry.getValue(), playerID, ack);
+
+                    if (progress == null) {
+                        progress = writeProgressFull(entry.getValue(), playerID, pidList);
+                    } else if (!progress.hasKey("completed") && progress.getTagList("tasks", 10)
+                        .tagCount() == 0) {
+                        progress = null; // Client is already up to date
+                    }
+
+                    if (progress != null) {
+                        tag.setTag("progress", progress);
+                        if (sync.hasReset(entry.getKey())) tag.setBoolean("resetCompletion", true);
+                    } else if (!tag.hasKey("config")) {
+                        continue;
+                    }
                 }
 
                 NBTConverter.UuidValueType.QUEST.writeId(entry.getKey(), tag);
                 dataList.appendTag(tag);
             }
 
+            if (dataList.tagCount() == 0 && !sync.isFullConfig()) {
+                return;
+            }
+
             NBTTagCompound payload = new NBTTagCompound();
-            payload.setBoolean("merge", !config || questIDs != null);
-            payload.setBoolean("resetCompletion", resetCompletion);
+            payload.setBoolean("merge", !sync.isFullConfig());
             payload.setTag("data", dataList);
 
             if (player == null) {
@@ -124,6 +290,93 @@ public class NetQuestSync {
         });
     }
 
+    /**
+     * Writes all of the quest's progress for the given users. When sent to a single player the revisions are
+     * included so the client can acknowledge them
+     */
+    private static NBTTagCompound writeProgressFull(IQuest quest, @Nullable UUID playerID,
+        @Nullable List<UUID> pidList) {
+        if (playerID == null) {
+            return quest.writeProgressToNBT(new NBTTagCompound(), null);
+        }
+
+        // Revisions are read before the data so a change made in between is picked up by the next sync
+        long questRev = quest.getProgressRevision(playerID);
+        Map<Integer, Long> taskRevs = new HashMap<>();
+        for (DBEntry<ITask> task : quest.getTasks()
+            .getEntries()) {
+            taskRevs.put(
+                task.getID(),
+                task.getValue()
+                    .getProgressRevision(playerID));
+        }
+
+        NBTTagCompound progress = quest.writeProgressToNBT(new NBTTagCompound(), pidList);
+        progress.setLong("revision", questRev);
+
+        NBTTagList tasks = progress.getTagList("tasks", 10);
+        for (int i = 0; i < tasks.tagCount(); i++) {
+            NBTTagCompound taskTag = tasks.getCompoundTagAt(i);
+            Long rev = taskRevs.get(taskTag.getInteger("index"));
+            taskTag.setLong("revision", rev == null ? -1L : rev);
+        }
+
+        return progress;
+    }
+
+    /**
+     * Writes only the parts of the player's progress that changed since the revisions they acknowledged. Returns null
+     * if the quest doesn't track revisions and has to be sent in full
+     */
+    @Nullable
+    private static NBTTagCompound writeProgressDelta(IQuest quest, UUID playerID, QuestAck ack) {
+        long questRev = quest.getProgressRevision(playerID);
+        if (questRev < 0) {
+            return null;
+        }
+
+        NBTTagCompound progress = new NBTTagCompound();
+        progress.setBoolean("delta", true);
+        progress.setLong("revision", questRev);
+
+        if (questRev != ack.questRev) {
+            NBTTagList comJson = new NBTTagList();
+            NBTTagCompound entry = quest.getCompletionInfo(playerID);
+            if (entry != null) {
+                // Completion info is already a detached copy
+                entry.setString("uuid", playerID.toString());
+                comJson.appendTag(entry);
+            }
+            progress.setTag("completed", comJson);
+        }
+
+        List<UUID> pidList = Collections.singletonList(playerID);
+        NBTTagList tasks = new NBTTagList();
+        for (DBEntry<ITask> task : quest.getTasks()
+            .getEntries()) {
+            long rev = task.getValue()
+                .getProgressRevision(playerID);
+            Long acked = ack.taskRevs.get(task.getID());
+            if (rev >= 0 && acked != null && acked == rev) {
+                continue;
+            }
+
+            NBTTagCompound taskTag = task.getValue()
+                .writeProgressToNBT(new NBTTagCompound(), pidList);
+            taskTag.setString(
+                "taskID",
+                task.getValue()
+                    .getFactoryID()
+                    .toString());
+            taskTag.setInteger("index", task.getID());
+            taskTag.setLong("revision", rev);
+            tasks.appendTag(taskTag);
+        }
+        progress.setTag("tasks", tasks);
+
+        return progress;
+    }
+
     // Asks the server to send specific quest data over
     @SideOnly(Side.CLIENT)
     public static void requestSync(@Nullable Collection<UUID> questIDs, boolean configs, boolean progress) {
@@ -141,19 +394,55 @@ public class NetQuestSync {
     private static void onServer(Tuple2<NBTTagCompound, EntityPlayerMP> message) {
         NBTTagCompound payload = message.getFirst();
 
+        if (payload.hasKey("ack", Constants.NBT.TAG_LIST)) {
+            onAcknowledged(message.getSecond(), payload.getTagList("ack", Constants.NBT.TAG_COMPOUND));
+            return;
+        }
+
         Collection<UUID> reqIDs = null;
         if (payload.hasKey("requestIDs", Constants.NBT.TAG_LIST)) {
             reqIDs = NBTConverter.UuidValueType.QUEST.readIds(payload, "requestIDs");
         }
 
-        sendSync(message.getSecond(), reqIDs, payload.getBoolean("getConfig"), payload.getBoolean("getProgress"));
+        // The client explicitly asked for this data so don't assume it has any of it
+        queueSync(
+            message.getSecond(),
+            reqIDs,
+            payload.getBoolean("getConfig"),
+            payload.getBoolean("getProgress"),
+            false,
+            true);
+    }
+
+    private static void onAcknowledged(EntityPlayerMP player, NBTTagList ackList) {
+        Map<UUID, QuestAck> acks = acknowledged
+            .computeIfAbsent(QuestingAPI.getQuestingUUID(player), key -> new ConcurrentHashMap<>());
+
+        for (int i = 0; i < ackList.tagCount(); i++) {
+            NBTTagCompound tag = ackList.getCompoundTagAt(i);
+            Optional<UUID> questID = NBTConverter.UuidValueType.QUEST.tryReadId(tag);
+            if (!questID.isPresent()) {
+                continue;
+            }
+
+            QuestAck previous = tag.getBoolean("delta") ? acks.get(questID.get()) : null;
+            Map<Integer, Long> taskRevs = previous == null ? new HashMap<>() : new HashMap<>(previous.taskRevs);
+
+            NBTTagList tasks = tag.getTagList("tasks", Constants.NBT.TAG_COMPOUND);
+            for (int j = 0; j < tasks.tagCount(); j++) {
+                NBTTagCompound taskTag = tasks.getCompoundTagAt(j);
+                taskRevs.put(taskTag.getInteger("index"), taskTag.getLong("revision"));
+            }
+
+            acks.put(questID.get(), new QuestAck(tag.getLong("revision"), taskRevs));
+        }
     }
 
     @SideOnly(Side.CLIENT)
     private static void onClient(NBTTagCompound message) {
         NBTTagList data = message.getTagList("data", 10);
         boolean merge = message.getBoolean("merge");
-        boolean resetCompletion = message.getBoolean("resetCompletion");
+        NBTTagList ackList = new NBTTagList();
         if (!merge) {
             QuestDatabase.INSTANCE.clear();
         }
@@ -176,15 +465,161 @@ public class NetQuestSync {
             }
 
             if (tag.hasKey("progress", 10) && quest != null) {
-                // TODO: Fix this properly
-                // If there we're not running the LAN server off this client then we overwrite always
-                quest.readProgressFromNBT(
-                    tag.getCompoundTag("progress"),
-                    !resetCompletion && (merge || Minecraft.getMinecraft()
-                        .isIntegratedServerRunning()));
+                NBTTagCompound progress = tag.getCompoundTag("progress");
+
+                if (progress.getBoolean("delta")) {
+                    readProgressDelta(quest, progress);
+                } else {
+                    // TODO: Fix this properly
+                    // If there we're not running the LAN server off this client then we overwrite always
+                    quest.readProgressFromNBT(
+                        progress,
+                        !tag.getBoolean("resetCompletion") && (merge || Minecraft.getMinecraft()
+                            .isIntegratedServerRunning()));
+                }
+
+                if (progress.hasKey("revision", 99)) {
+                    NBTTagCompound ack = new NBTTagCompound();
+                    NBTConverter.UuidValueType.QUEST.writeId(questID, ack);
+                    ack.setBoolean("delta", progress.getBoolean("delta"));
+                    ack.setLong("revision", progress.getLong("revision"));
+
+                    NBTTagList tasks = progress.getTagList("tasks", 10);
+                    NBTTagList taskAcks = new NBTTagList();
+                    for (int j = 0; j < tasks.tagCount(); j++) {
+                        NBTTagCompound taskAck = new NBTTagCompound();
+                        taskAck.setInteger(
+                            "index",
+                            tasks.getCompoundTagAt(j)
+                                .getInteger("index"));
+                        taskAck.setLong(
+                            "revision",
+                            tasks.getCompoundTagAt(j)
+                                .getLong("revision"));
+                        taskAcks.appendTag(taskAck);
+                    }
+                    ack.setTag("tasks", taskAcks);
+                    ackList.appendTag(ack);
+                }
             }
         }
 
+        if (ackList.tagCount() > 0) {
+            NBTTagCompound payload = new NBTTagCompound();
+            payload.setTag("ack", ackList);
+            PacketSender.INSTANCE.sendToServer(new QuestingPacket(ID_NAME, payload));
+        }
+
         MinecraftForge.EVENT_BUS.post(new DatabaseEvent.Update(DBType.QUEST));
     }
+
+    /**
+     * Replaces this player's completion entry and the progress of the tasks included in the delta
+     */
+    @SideOnly(Side.CLIENT)
+    private static void readProgressDelta(IQuest quest, NBTTagCompound progress) {
+        Minecraft mc = Minecraft.getMinecraft();
+
+        // When hosting, the server has already updated the same database
+        if (!mc.isIntegratedServerRunning() && mc.thePlayer != null) {
+            UUID self = QuestingAPI.getQuestingUUID(mc.thePlayer);
+
+            if (progress.hasKey("completed", 9)) {
+                quest.setCompletionInfo(self, null);
+            }
+
+            NBTTagList tasks = progress.getTagList("tasks", 10);
+            for (int i = 0; i < tasks.tagCount(); i++) {
+                ITask task = quest.getTasks()
+                    .getValue(
+                        tasks.getCompoundTagAt(i)
+                            .getInteger("index"));
+                if (task != null) {
+                    task.resetUser(self);
+                }
+            }
+        }
+
+        quest.readProgressFromNBT(progress, true);
+    }
+
+    private static final class PendingSync {
+
+        private boolean config = false;
+        private boolean progress = false;
+        private boolean ignoreAcks = false;
+        // A null set means every quest
+        private Set<UUID> configIDs = new HashSet<>();
+        private Set<UUID> progressIDs = new HashSet<>();
+        // Quests whose completion the client should overwrite rather than merge with
+        private Set<UUID> resetIDs = new HashSet<>();
+
+        private void add(@Nullable Collection<UUID> questIDs, boolean config, boolean progress,
+            boolean resetCompletion, boolean ignoreAcks) {
+            if (config) {
+                this.config = true;
+                configIDs = union(configIDs, questIDs);
+            }
+
+            if (progress) {
+                this.progress = true;
+                progressIDs = union(progressIDs, questIDs);
+                if (resetCompletion) resetIDs = union(resetIDs, questIDs);
+            }
+
+            this.ignoreAcks |= ignoreAcks;
+        }
+
+        @Nullable
+        private Set<UUID> getQuestIDs() {
+            if ((config && configIDs == null) || (progress && progressIDs == null)) {
+                return null;
+            }
+
+            Set<UUID> ids = new HashSet<>(configIDs);
+            ids.addAll(progressIDs);
+            return ids;
+        }
+
+        private boolean hasConfig(UUID questID) {
+            return config && (configIDs == null || configIDs.contains(questID));
+        }
+
+        private boolean hasProgress(UUID questID) {
+            return progress && (progressIDs == null || progressIDs.contains(questID));
+        }
+
+        private boolean hasReset(UUID questID) {
+            return resetIDs == null || resetIDs.contains(questID);
+        }
+
+        // The client clears its database before reading a full config sync
+        private boolean isFullConfig() {
+            return config && configIDs == null;
+        }
+
+        @Nullable
+        private static Set<UUID> union(@Nullable Set<UUID> current, @Nullable Collection<UUID> questIDs) {
+            if (current == null || questIDs == null) {
+                return null;
+            }
+
+            current.addAll(questIDs);
+            return current;
+        }
+    }
+
+    /**
+     * Revisions of a quest's progress that a player has confirmed receiving
+     */
+    private static final class QuestAck {
+
+        private final long questRev;
+        private final Map<Integer, Long> taskRevs;
+
+        private QuestAck(long questRev, Map<Integer, Long> taskRevs) {
+            this.questRev = questRev;
+            this.taskRevs = taskRevs;
+        }
+    }
 }
@@ -1,20 +1,29 @@
 package betterquesting.questing;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 
+import com.google.common.collect.ImmutableSet;
+
 import betterquesting.api.questing.IQuest;
 import betterquesting.api.questing.IQuestDatabase;
 import betterquesting.api.storage.BQ_Settings;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api.utils.UuidConverter;
+import betterquesting.api2.cache.QuestCache;
 import betterquesting.api2.storage.UuidDatabase;
 import betterquesting.core.BetterQuesting;
 
@@ -22,6 +31,13 @@ public class QuestDatabase extends UuidDatabase<IQuest> implements IQuestDatabas
 
     public static final QuestDatabase INSTANCE = new QuestDatabase();
 
+    // Reverse prerequisite graph (quest -> quests requiring it). Kept in sync by QuestInstance's requirement set
+    private final HashMap<UUID, Set<UUID>> dependents = new HashMap<>();
+
+    // Quests each recently active user has progress data in. Built on demand by a full scan, then kept up to date by
+    // the progress listeners of quests and tasks and by the mutators below until the entry is evicted
+    private final ConcurrentHashMap<UUID, Set<UUID>> touchedQuests = new ConcurrentHashMap<>();
+
     @Override
     public synchronized IQuest createNew(UUID questID) {
         IQuest quest = new QuestInstance();
@@ -35,7 +51,35 @@ public class QuestDatabase extends UuidDatabase<IQuest> implements IQuestDatabas
         if (value == null && BQ_Settings.logNullQuests) {
             BetterQuesting.logger.warn("A null quest was added with ID {}", key);
         }
-        return super.put(key, value);
+        IQuest prev = super.put(key, value);
+        if (prev != value) {
+            unindexRequirements(key, prev);
+            indexRequirements(key, value);
+            if (value == null) {
+                unindexTouched(key);
+            } else {
+                indexTouched(key, value);
+            }
+        }
+        return prev;
+    }
+
+    @Nullable
+    @Override
+    public IQuest forcePut(@Nullable UUID key, @Nullable IQuest value) {
+        UUID prevKey = lookupKey(value);
+        IQuest prev = super.forcePut(key, value);
+        unindexRequirements(prevKey, value);
+        unindexRequirements(key, prev);
+        indexRequirements(key, value);
+        if (prevKey != null && !prevKey.equals(key)) unindexTouched(prevKey);
+        indexTouched(key, value);
+        return prev;
+    }
+
+    @Override
+    public void putAll(Map<? extends UUID, ? extends IQuest> map) {
+        map.forEach(this::put);
     }
 
     @Override
@@ -47,9 +91,10 @@ public class QuestDatabase extends UuidDatabase<IQuest> implements IQuestDatabas
 
         IQuest removed = super.remove(questID);
         if (removed != null) {
-            for (IQuest quest : values()) {
-                removeReq(quest, questID);
-            }
+            QuestCache.invalidateTaskIndices();
+            unindexRequirements(questID, removed);
+            unindexTouched(questID);
+            stripRequirement(questID);
         }
         return removed;
     }
@@ -58,17 +103,121 @@ public class QuestDatabase extends UuidDatabase<IQuest> implements IQuestDatabas
     public UUID removeValue(IQuest value) {
         UUID questID = super.removeValue(value);
         if (questID != null) {
-            for (IQuest quest : values()) {
-                removeReq(quest, questID);
+            QuestCache.invalidateTaskIndices();
+            unindexRequirements(questID, value);
+            unindexTouched(questID);
+            stripRequirement(questID);
+        }
+        return questID;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        QuestCache.invalidateTaskIndices();
+        // Users stay indexed, with nothing left in their sets
+        touchedQuests.values()
+            .forEach(Set::clear);
+        synchronized (dependents) {
+            dependents.clear();
+        }
+    }
 
+    @Override
+    public void replaceAll(Map<? extends UUID, ? extends IQuest> map) {
+        synchronized (dependents) {
+            super.replaceAll(map);
+            dependents.clear();
+            map.forEach(this::indexRequirements);
+        }
+        QuestCache.invalidateTaskIndices();
+        touchedQuests.values()
+            .forEach(Set::clear);
+        map.forEach(this::indexTouched);
+    }
+
+    @Override
+    public Set<UUID> getDependents(UUID questID) {
+        synchronized (dependents) {
+            Set<UUID> set = dependents.get(questID);
+            return set == null ? ImmutableSet.of() : ImmutableSet.copyOf(set);
+        }
+    }
+
+    @Override
+    public Set<UUID> getDependentClosure(Collection<UUID> questIDs) {
+        Set<UUID> closure = new HashSet<>(questIDs);
+        ArrayDeque<UUID> queue = new ArrayDeque<>(closure);
+
+        synchronized (dependents) {
+            while (!queue.isEmpty()) {
+                Set<UUID> set = dependents.get(queue.poll());
+                if (set == null) continue;
+                for (UUID dep : set) {
+                    if (closure.add(dep)) queue.add(dep);
+                }
             }
         }
-        return questID;
+
+        return closure;
+    }
+
+    void onRequirementAdded(IQuest quest, UUID reqID) {
+        UUID questID = lookupKey(quest);
+        if (questID == null) return; // Not (yet) part of this database. Indexed on insertion instead
+
+        synchronized (dependents) {
+            dependents.computeIfAbsent(reqID, key -> new HashSet<>())
+                .add(questID);
+        }
     }
 
-    private void removeReq(IQuest quest, UUID questID) {
-        quest.getRequirements()
-            .remove(questID);
+    void onRequirementRemoved(IQuest quest, UUID reqID) {
+        UUID questID = lookupKey(quest);
+        if (questID == null) return;
+
+        synchronized (dependents) {
+            removeDependent(reqID, questID);
+        }
+    }
+
+    private void indexRequirements(@Nullable UUID questID, @Nullable IQuest quest) {
+        if (questID == null || quest == null) return;
+
+        synchronized (dependents) {
+            for (UUID reqID : quest.getRequirements()) {
+                dependents.computeIfAbsent(reqID, key -> new HashSet<>())
+                    .add(questID);
+            }
+        }
+    }
+
+    private void unindexRequirements(@Nullable UUID questID, @Nullable IQuest quest) {
+        if (questID == null || quest == null) return;
+
+        synchronized (dependents) {
+            for (UUID reqID : quest.getRequirements()) {
+                removeDependent(reqID, questID);
+            }
+        }
+    }
+
+    private void removeDependent(UUID reqID, UUID questID) {
+        Set<UUID> set = dependents.get(reqID);
+        if (set != null && set.remove(questID) && set.isEmpty()) {
+            dependents.remove(reqID);
+        }
+    }
+
+    // Only visits the quests that actually require the removed one
+    private void stripRequirement(UUID questID) {
+        for (UUID dependent : getDependents(questID)) {
+            IQuest quest = get(dependent);
+            if (quest != null) {
+                quest.getRequirements()
+                    .remove(questID);
+            }
+        }
     }
 
     @Override
@@ -122,17 +271,86 @@ public class QuestDatabase extends UuidDatabase<IQuest> implements IQuestDatabas
     }
 
     @Override
-    public synchronized NBTTagList writeProgressToNBT(NBTTagList json, List<UUID> users) {
-        for (Map.Entry<UUID, IQuest> entry : entrySet()) {
-            NBTTagCompound jq = entry.getValue()
-                .writeProgressToNBT(new NBTTagCompound(), users);
-            NBTConverter.UuidValueType.QUEST.writeId(entry.getKey(), jq);
-            json.appendTag(jq);
+    public synchronized NBTTagList writeProgressToNBT(NBTTagList json, @Nullable List<UUID> users) {
+        if (users == null) {
+            for (Map.Entry<UUID, IQuest> entry : entrySet()) {
+                writeQuestProgress(json, entry.getKey(), entry.getValue(), null);
+            }
+            return json;
+        }
+
+        // Only visit the quests these users actually have data in
+        Set<UUID> questIDs = new HashSet<>();
+        users.forEach(user -> questIDs.addAll(getTouchedQuests(user)));
+        for (UUID questID : questIDs) {
+            IQuest quest = get(questID);
+            if (quest != null && users.stream()
+                .anyMatch(quest::hasProgress)) {
+                writeQuestProgress(json, questID, quest, users);
+            }
         }
 
         return json;
     }
 
+    private void writeQuestProgress(NBTTagList json, UUID questID, IQuest quest, @Nullable List<UUID> users) {
+        NBTTagCompound jq = quest.writeProgressToNBT(new NBTTagCompound(), users);
+        NBTConverter.UuidValueType.QUEST.writeId(questID, jq);
+        json.appendTag(jq);
+    }
+
+    /**
+     * Returns the IDs of all quests the user may have progress data in. This is a superset: entries are not removed
+     * when progress is reset.
+     */
+    public Set<UUID> getTouchedQuests(UUID user) {
+        Set<UUID> touched = touchedQuests.get(user);
+        if (touched == null) {
+            // Publish the set before scanning so progress added concurrently is not lost
+            Set<UUID> created = ConcurrentHashMap.newKeySet();
+            touched = touchedQuests.putIfAbsent(user, created);
+            if (touched == null) {
+                touched = created;
+                for (Map.Entry<UUID, IQuest> entry : entrySet()) {
+                    if (entry.getValue()
+                        .hasProgress(user)) touched.add(entry.getKey());
+                }
+            }
+        }
+        return ImmutableSet.copyOf(touched);
+    }
+
+    /**
+     * Drops the touched quest index of a user. Call this once the user's progress was saved and they went offline.
+     */
+    public void evictTouchedQuests(UUID user) {
+        touchedQuests.remove(user);
+    }
+
+    void markTouched(UUID user, IQuest quest) {
+        Set<UUID> touched = touchedQuests.get(user);
+        if (touched == null) return; // Not indexed. The next lookup will scan for it
+
+        UUID questID = lookupKey(quest);
+        if (questID != null) touched.add(questID);
+    }
+
+    // A quest added with progress already in it, e.g. moved to another ID, is picked up by the users already indexed
+    private void indexTouched(@Nullable UUID questID, @Nullable IQuest quest) {
+        if (questID == null || quest == null) return;
+
+        touchedQuests.forEach((user, touched) -> {
+            if (quest.hasProgress(user)) touched.add(questID);
+        });
+    }
+
+    private void unindexTouched(@Nullable UUID questID) {
+        if (questID == null) return;
+
+        touchedQuests.values()
+            .forEach(touched -> touched.remove(questID));
+    }
+
     @Override
     public synchronized void readProgressFromNBT(NBTTagList json, boolean merge) {
         for (int i = 0; i < json.tagCount(); i++) {
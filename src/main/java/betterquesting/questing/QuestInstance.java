@@ -1,11 +1,13 @@
 package betterquesting.questing;
 
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -38,11 +40,14 @@ import betterquesting.api.utils.BigItemStack;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api.utils.UuidConverter;
 import betterquesting.api2.cache.QuestCache;
+import betterquesting.api2.storage.CompletionTable;
 import betterquesting.api2.storage.DBEntry;
 import betterquesting.api2.storage.IDatabaseNBT;
+import betterquesting.api2.storage.ProgressRevisions;
 import betterquesting.api2.utils.DirtyPlayerMarker;
 import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.core.BetterQuesting;
+import betterquesting.handlers.SaveLoadHandler;
 import betterquesting.questing.rewards.RewardStorage;
 import betterquesting.questing.tasks.TaskStorage;
 import betterquesting.storage.PropertyContainer;
@@ -52,11 +57,12 @@ import drethic.questbook.config.QBConfig;
 
 public class QuestInstance implements IQuest {
 
-    private final TaskStorage tasks = new TaskStorage();
+    private final TaskStorage tasks = new TaskStorage(this::onProgressAdded);
     private final RewardStorage rewards = new RewardStorage();
 
-    private final HashMap<UUID, NBTTagCompound> completeUsers = new HashMap<>();
-    private Set<UUID> preRequisites = new HashSet<>();
+    private final CompletionTable completeUsers = new CompletionTable();
+    private final ProgressRevisions revisions = new ProgressRevisions();
+    private final RequirementSet preRequisites = new RequirementSet();
     private HashMap<UUID, RequirementType> prereqTypes = new HashMap<>();
 
     private final PropertyContainer qInfo = new PropertyContainer();
@@ -148,7 +154,7 @@ public class QuestInstance implements IQuest {
             int done = 0;
             boolean update = false;
 
-            ParticipantInfo partInfo = new ParticipantInfo(player);
+            ParticipantInfo partInfo = ParticipantInfo.of(player);
             Map.Entry<UUID, IQuest> mapEntry = Maps.immutableEntry(questID, this);
 
             int numTasks = tasks.size();
@@ -200,26 +206,23 @@ public class QuestInstance implements IQuest {
 
         synchronized (completeUsers) {
             if (qInfo.getProperty(NativeProps.GLOBAL) && !qInfo.getProperty(NativeProps.GLOBAL_SHARE)) {
-                for (NBTTagCompound entry : completeUsers.values()) {
-                    if (entry.getBoolean("claimed")) {
-                        return true;
-                    }
-                }
-
-                return false;
+                return completeUsers.anyClaimed();
             }
 
-            NBTTagCompound entry = getCompletionInfo(uuid);
-            return entry != null && entry.getBoolean("claimed");
+            return completeUsers.isClaimed(uuid);
         }
     }
 
     @Override
     public boolean canClaimBasically(EntityPlayer player) {
         UUID pID = QuestingAPI.getQuestingUUID(player);
-        NBTTagCompound entry = getCompletionInfo(pID);
+        boolean completed;
+
+        synchronized (completeUsers) {
+            completed = completeUsers.contains(pID);
+        }
 
-        return entry != null && !hasClaimed(pID) && !canSubmit(player);
+        return completed && !hasClaimed(pID) && !canSubmit(player);
     }
 
     @Override
@@ -248,18 +251,13 @@ public class QuestInstance implements IQuest {
             unwrapped.claimReward(player, mapEntry);
         }
 
-        ParticipantInfo pInfo = new ParticipantInfo(player);
+        ParticipantInfo pInfo = ParticipantInfo.of(player);
         List<UUID> playersToMark = QBConfig.fullySyncQuests ? pInfo.ALL_UUIDS : Collections.singletonList(pInfo.UUID);
 
         synchronized (completeUsers) {
             for (UUID user : playersToMark) {
-                NBTTagCompound entry = getCompletionInfo(user);
-                if (entry == null) {
-                    entry = new NBTTagCompound();
-                }
-                entry.setBoolean("claimed", true);
-                entry.setLong("timestamp", System.currentTimeMillis());
-                this.completeUsers.put(user, entry);
+                if (completeUsers.put(user, true, System.currentTimeMillis())) onProgressAdded(user);
+                revisions.bump(user);
                 DirtyPlayerMarker.markDirty(user);
 
                 EntityPlayerMP dirtyPlayerEntity = QuestingAPI.getPlayer(user);
@@ -282,10 +280,9 @@ public class QuestInstance implements IQuest {
         UUID playerID = QuestingAPI.getQuestingUUID(player);
 
         synchronized (completeUsers) {
-            NBTTagCompound entry = this.getCompletionInfo(playerID);
-            if (entry == null) return true;
+            if (!completeUsers.contains(playerID)) return true;
 
-            if (!entry.getBoolean("claimed") && getProperty(NativeProps.REPEAT_TIME) >= 0) // Complete but repeatable
+            if (!completeUsers.isClaimed(playerID) && getProperty(NativeProps.REPEAT_TIME) >= 0) // Complete but repeatable
             {
                 if (tasks.size() <= 0) return true;
 
@@ -325,16 +322,9 @@ public class QuestInstance implements IQuest {
     public void setComplete(UUID uuid, long timestamp) {
         if (uuid == null) return;
         synchronized (completeUsers) {
-            NBTTagCompound entry = this.getCompletionInfo(uuid);
-
-            if (entry == null) {
-                entry = new NBTTagCompound();
-                completeUsers.put(uuid, entry);
-            }
-
-            entry.setBoolean("claimed", false);
-            entry.setLong("timestamp", timestamp);
+            if (completeUsers.put(uuid, false, timestamp)) onProgressAdded(uuid);
 
+            revisions.bump(uuid);
             DirtyPlayerMarker.markDirty(uuid);
         }
     }
@@ -364,10 +354,12 @@ public class QuestInstance implements IQuest {
      */
     @Override
     public boolean isComplete(UUID uuid) {
-        if (qInfo.getProperty(NativeProps.GLOBAL)) {
-            return completeUsers.size() > 0;
-        } else {
-            return getCompletionInfo(uuid) != null;
+        synchronized (completeUsers) {
+            if (qInfo.getProperty(NativeProps.GLOBAL)) {
+                return !completeUsers.isEmpty();
+            } else {
+                return completeUsers.contains(uuid);
+            }
         }
     }
 
@@ -388,10 +380,28 @@ public class QuestInstance implements IQuest {
         return EnumQuestState.LOCKED;
     }
 
+    /**
+     * Returns a detached copy of the user's completion entry. Edits to it are not written back, use
+     * {@link #setCompletionInfo(UUID, NBTTagCompound)} for that
+     */
     @Override
     public NBTTagCompound getCompletionInfo(UUID uuid) {
         synchronized (completeUsers) {
-            return completeUsers.get(uuid);
+            return completeUsers.toNBT(uuid);
+        }
+    }
+
+    @Override
+    public boolean hasCompletionInfo(UUID uuid) {
+        synchronized (completeUsers) {
+            return completeUsers.contains(uuid);
+        }
+    }
+
+    @Override
+    public long getCompletionTime(UUID uuid) {
+        synchronized (completeUsers) {
+            return completeUsers.getTimestamp(uuid);
         }
     }
 
@@ -402,10 +412,11 @@ public class QuestInstance implements IQuest {
         synchronized (completeUsers) {
             if (nbt == null) {
                 completeUsers.remove(uuid);
-            } else {
-                completeUsers.put(uuid, nbt);
+            } else if (completeUsers.put(uuid, nbt.getBoolean("claimed"), nbt.getLong("timestamp"))) {
+                onProgressAdded(uuid);
             }
 
+            revisions.bump(uuid);
             DirtyPlayerMarker.markDirty(uuid);
         }
     }
@@ -416,11 +427,12 @@ public class QuestInstance implements IQuest {
     @Override
     public void resetUser(@Nullable UUID uuid, boolean fullReset) {
         synchronized (completeUsers) {
-            HashSet<UUID> dirtyPlayers = new HashSet<>();
             if (uuid == null) {
-                dirtyPlayers.addAll(completeUsers.keySet());
+                List<UUID> dirtyPlayers = new ArrayList<>(completeUsers.size());
+                completeUsers.addKeysTo(dirtyPlayers);
+                DirtyPlayerMarker.markDirty(dirtyPlayers);
             } else {
-                dirtyPlayers.add(uuid);
+                DirtyPlayerMarker.markDirty(uuid);
             }
             if (fullReset) {
                 if (uuid == null) {
@@ -430,20 +442,13 @@ public class QuestInstance implements IQuest {
                 }
             } else {
                 if (uuid == null) {
-                    completeUsers.forEach((key, value) -> {
-                        value.setBoolean("claimed", false);
-                        value.setLong("timestamp", 0);
-                    });
-                } else {
-                    NBTTagCompound entry = getCompletionInfo(uuid);
-                    if (entry != null) {
-                        entry.setBoolean("claimed", false);
-                        entry.setLong("timestamp", 0);
-                    }
+                    completeUsers.setAll(false, 0);
+                } else if (completeUsers.contains(uuid)) {
+                    completeUsers.put(uuid, false, 0);
                 }
             }
 
-            DirtyPlayerMarker.markDirty(dirtyPlayers);
+            revisions.bump(uuid);
             tasks.getEntries()
                 .forEach(
                     (value) -> value.getValue()
@@ -522,7 +527,7 @@ public class QuestInstance implements IQuest {
         // We need this map to recreate that link.
         Map<Integer, UUID> legacyPrerequisiteIndex = new HashMap<>();
         if (jObj.func_150299_b("preRequisites") == Constants.NBT.TAG_LIST) {
-            preRequisites = new HashSet<>();
+            preRequisites.clear();
 
             List<NBTBase> tagList = NBTConverter
                 .getTagList(jObj.getTagList("preRequisites", Constants.NBT.TAG_COMPOUND));
@@ -547,7 +552,7 @@ public class QuestInstance implements IQuest {
         } else if (jObj.func_150299_b("preRequisites") == Constants.NBT.TAG_INT_ARRAY) // Legacy format
         {
             // This block is needed for old questbook data.
-            preRequisites = new HashSet<>();
+            preRequisites.clear();
             int[] intArray = jObj.getIntArray("preRequisites");
             for (int i = 0; i < intArray.length; i++) {
                 UUID questID = UuidConverter.convertLegacyId(intArray[i]);
@@ -570,22 +575,23 @@ public class QuestInstance implements IQuest {
         }
 
         this.setupProps();
+        QuestCache.invalidateTaskIndices();
     }
 
     @Override
     public NBTTagCompound writeProgressToNBT(NBTTagCompound json, @Nullable List<UUID> users) {
         synchronized (completeUsers) {
             NBTTagList comJson = new NBTTagList();
-            for (Entry<UUID, NBTTagCompound> entry : completeUsers.entrySet()) {
-                if (entry.getValue() == null || entry.getKey() == null) continue;
-                if (users != null && !users.contains(entry.getKey())) continue;
-                NBTTagCompound tags = (NBTTagCompound) entry.getValue()
-                    .copy();
-                tags.setString(
-                    "uuid",
-                    entry.getKey()
-                        .toString());
-                comJson.appendTag(tags);
+            if (users == null) {
+                completeUsers.writeAll(comJson);
+            } else {
+                // Look up the requested users directly instead of scanning every user that completed this quest
+                for (UUID user : users) {
+                    NBTTagCompound entry = completeUsers.toNBT(user);
+                    if (entry == null) continue;
+                    entry.setString("uuid", user.toString());
+                    comJson.appendTag(entry);
+                }
             }
             json.setTag("completed", comJson);
             NBTTagList tskJson = tasks.writeProgressToNBT(new NBTTagList(), users);
@@ -595,23 +601,52 @@ public class QuestInstance implements IQuest {
         }
     }
 
+    @Override
+    public boolean hasProgress(UUID uuid) {
+        synchronized (completeUsers) {
+            if (completeUsers.contains(uuid)) return true;
+        }
+
+        for (DBEntry<ITask> entry : tasks.getEntries()) {
+            if (entry.getValue()
+                .hasProgress(uuid)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public long getProgressRevision(UUID uuid) {
+        return revisions.get(uuid);
+    }
+
+    private void onProgressAdded(UUID uuid) {
+        QuestDatabase.INSTANCE.markTouched(uuid, this);
+    }
+
     @Override
     public void readProgressFromNBT(NBTTagCompound json, boolean merge) {
         synchronized (completeUsers) {
-            if (!merge) completeUsers.clear();
+            if (!merge) {
+                completeUsers.clear();
+            }
             NBTTagList comList = json.getTagList("completed", 10);
             for (int i = 0; i < comList.tagCount(); i++) {
-                NBTTagCompound entry = (NBTTagCompound) comList.getCompoundTagAt(i)
-                    .copy();
+                NBTTagCompound entry = comList.getCompoundTagAt(i);
 
                 try {
                     UUID uuid = UUID.fromString(entry.getString("uuid"));
-                    completeUsers.put(uuid, entry);
+                    completeUsers.put(uuid, entry.getBoolean("claimed"), entry.getLong("timestamp"));
+                    onProgressAdded(uuid);
                 } catch (Exception e) {
                     BetterQuesting.logger.log(Level.ERROR, "Unable to load UUID for quest", e);
                 }
             }
 
+            // A single bump for everyone rather than a revision entry per loaded user
+            if (!merge || comList.tagCount() > 0) {
+                revisions.bump(null);
+            }
+
             tasks.readProgressFromNBT(json.getTagList("tasks", 10), merge);
         }
     }
@@ -619,26 +654,16 @@ public class QuestInstance implements IQuest {
     @Override
     public void setClaimed(UUID uuid, long timestamp) {
         synchronized (completeUsers) {
-            NBTTagCompound entry = this.getCompletionInfo(uuid);
-
-            if (entry != null) {
-                entry.setBoolean("claimed", true);
-                entry.setLong("timestamp", timestamp);
-            } else {
-                entry = new NBTTagCompound();
-                entry.setBoolean("claimed", true);
-                entry.setLong("timestamp", timestamp);
-                completeUsers.put(uuid, entry);
-            }
+            if (completeUsers.put(uuid, true, timestamp)) onProgressAdded(uuid);
 
+            revisions.bump(uuid);
             DirtyPlayerMarker.markDirty(uuid);
         }
     }
 
     public void getUsersWithCompletionData(Set<UUID> targetSet) {
         synchronized (completeUsers) {
-            // Take a copy to prevent concurrent modifications to the returned Set
-            targetSet.addAll(completeUsers.keySet());
+            completeUsers.addKeysTo(targetSet);
         }
     }
 
@@ -660,6 +685,11 @@ public class QuestInstance implements IQuest {
     @Override
     public <T> void setProperty(IPropertyType<T> prop, T value) {
         qInfo.setProperty(prop, value);
+
+        if (prop == NativeProps.GLOBAL && Boolean.TRUE.equals(value)
+            && QuestDatabase.INSTANCE.lookupKey(this) != null) {
+            SaveLoadHandler.INSTANCE.checkGlobalQuests();
+        }
     }
 
     @Override
@@ -671,4 +701,63 @@ public class QuestInstance implements IQuest {
     public void removeAllProps() {
         qInfo.removeAllProps();
     }
+
+    /**
+     * Requirement set that reports every change to the quest database so its reverse dependency graph stays in sync,
+     * even when callers edit the set returned by {@link #getRequirements()} directly.
+     */
+    private final class RequirementSet extends AbstractSet<UUID> {
+
+        private final HashSet<UUID> backing = new HashSet<>();
+
+        @Override
+        public boolean add(UUID questID) {
+            if (!backing.add(questID)) return false;
+            QuestDatabase.INSTANCE.onRequirementAdded(QuestInstance.this, questID);
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object questID) {
+            if (!backing.remove(questID)) return false;
+            QuestDatabase.INSTANCE.onRequirementRemoved(QuestInstance.this, (UUID) questID);
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object questID) {
+            return backing.contains(questID);
+        }
+
+        @Override
+        public int size() {
+            return backing.size();
+        }
+
+        @Override
+        public Iterator<UUID> iterator() {
+            Iterator<UUID> iter = backing.iterator();
+            return new Iterator<UUID>() {
+
+                private UUID current = null;
+
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                @Override
+                public UUID next() {
+                    current = iter.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    iter.remove();
+                    QuestDatabase.INSTANCE.onRequirementRemoved(QuestInstance.this, current);
+                }
+            };
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package betterquesting.questing;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -62,6 +63,50 @@ public class QuestLine extends UuidDatabase<IQuestLineEntry> implements IQuestLi
         return qle;
     }
 
+    @Nullable
+    @Override
+    public IQuestLineEntry put(@Nullable UUID key, @Nullable IQuestLineEntry value) {
+        IQuestLineEntry prev = super.put(key, value);
+        if (key != null) QuestLineDatabase.INSTANCE.onQuestAdded(this, key);
+        return prev;
+    }
+
+    @Nullable
+    @Override
+    public IQuestLineEntry forcePut(@Nullable UUID key, @Nullable IQuestLineEntry value) {
+        UUID prevKey = lookupKey(value);
+        IQuestLineEntry prev = super.forcePut(key, value);
+        if (prevKey != null && !prevKey.equals(key)) QuestLineDatabase.INSTANCE.onQuestRemoved(this, prevKey);
+        if (key != null) QuestLineDatabase.INSTANCE.onQuestAdded(this, key);
+        return prev;
+    }
+
+    @Override
+    public void putAll(Map<? extends UUID, ? extends IQuestLineEntry> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public IQuestLineEntry remove(Object key) {
+        IQuestLineEntry removed = super.remove(key);
+        if (removed != null) QuestLineDatabase.INSTANCE.onQuestRemoved(this, (UUID) key);
+        return removed;
+    }
+
+    @Override
+    public UUID removeValue(IQuestLineEntry value) {
+        UUID questID = super.removeValue(value);
+        if (questID != null) QuestLineDatabase.INSTANCE.onQuestRemoved(this, questID);
+        return questID;
+    }
+
+    @Override
+    public void clear() {
+        List<UUID> questIDs = new ArrayList<>(keySet());
+        super.clear();
+        questIDs.forEach(questID -> QuestLineDatabase.INSTANCE.onQuestRemoved(this, questID));
+    }
+
     @Override
     public String getUnlocalisedName() {
         String def = "New Quest Line";
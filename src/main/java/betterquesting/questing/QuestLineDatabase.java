@@ -2,9 +2,13 @@ package betterquesting.questing;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.UUID;
@@ -16,6 +20,8 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.MathHelper;
 
+import com.google.common.collect.ImmutableSet;
+
 import betterquesting.api.questing.IQuestLine;
 import betterquesting.api.questing.IQuestLineDatabase;
 import betterquesting.api.storage.BQ_Settings;
@@ -44,6 +50,9 @@ public class QuestLineDatabase extends UuidDatabase<IQuestLine> implements IQues
     protected final List<UUID> lineOrder = new ArrayList<>();
     protected final QuestLineSorter SORTER = new QuestLineSorter(this);
 
+    // Quest -> lines containing it. Kept in sync by the quest lines' own put/remove
+    private final HashMap<UUID, Set<UUID>> questLines = new HashMap<>();
+
     @Override
     public IQuestLine createNew(UUID lineID) {
         IQuestLine ql = new QuestLine();
@@ -57,12 +66,105 @@ public class QuestLineDatabase extends UuidDatabase<IQuestLine> implements IQues
         if (value == null && BQ_Settings.logNullQuests) {
             BetterQuesting.logger.warn("A null questline was added with ID {}", key);
         }
-        return super.put(key, value);
+        IQuestLine prev = super.put(key, value);
+        if (prev != value) {
+            unindexLine(key, prev);
+            indexLine(key, value);
+        }
+        return prev;
+    }
+
+    @Nullable
+    @Override
+    public IQuestLine forcePut(@Nullable UUID key, @Nullable IQuestLine value) {
+        UUID prevKey = lookupKey(value);
+        IQuestLine prev = super.forcePut(key, value);
+        unindexLine(prevKey, value);
+        unindexLine(key, prev);
+        indexLine(key, value);
+        return prev;
+    }
+
+    @Override
+    public void putAll(Map<? extends UUID, ? extends IQuestLine> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public IQuestLine remove(Object key) {
+        IQuestLine removed = super.remove(key);
+        if (removed != null) unindexLine((UUID) key, removed);
+        return removed;
+    }
+
+    @Override
+    public UUID removeValue(IQuestLine value) {
+        UUID lineID = super.removeValue(value);
+        if (lineID != null) unindexLine(lineID, value);
+        return lineID;
     }
 
     @Override
     public void removeQuest(UUID questID) {
-        values().forEach(ql -> ql.remove(questID));
+        for (UUID lineID : getLinesWithQuest(questID)) {
+            IQuestLine ql = get(lineID);
+            if (ql != null) ql.remove(questID);
+        }
+    }
+
+    @Override
+    public Set<UUID> getLinesWithQuest(UUID questID) {
+        synchronized (questLines) {
+            Set<UUID> set = questLines.get(questID);
+            return set == null ? ImmutableSet.of() : ImmutableSet.copyOf(set);
+        }
+    }
+
+    void onQuestAdded(IQuestLine line, UUID questID) {
+        UUID lineID = lookupKey(line);
+        if (lineID == null) return; // Not (yet) part of this database. Indexed on insertion instead
+
+        synchronized (questLines) {
+            questLines.computeIfAbsent(questID, key -> new HashSet<>())
+                .add(lineID);
+        }
+    }
+
+    void onQuestRemoved(IQuestLine line, UUID questID) {
+        UUID lineID = lookupKey(line);
+        if (lineID == null) return;
+
+        synchronized (questLines) {
+            removeLine(questID, lineID);
+        }
+    }
+
+    private void indexLine(@Nullable UUID lineID, @Nullable IQuestLine line) {
+        if (lineID == null || line == null) return;
+
+        synchronized (questLines) {
+            for (UUID questID : line.keySet()) {
+                questLines.computeIfAbsent(questID, key -> new HashSet<>())
+                    .add(lineID);
+            }
+        }
+    }
+
+    private void unindexLine(@Nullable UUID lineID, @Nullable IQuestLine line) {
+        if (lineID == null || line == null) return;
+
+        synchronized (questLines) {
+            for (UUID questID : line.keySet()) {
+                removeLine(questID, lineID);
+            }
+        }
+    }
+
+    private void removeLine(UUID questID, UUID lineID) {
+        Set<UUID> set = questLines.get(questID);
+        if (set != null && set.remove(lineID) && set.isEmpty()) {
+            questLines.remove(questID);
+        }
     }
 
     @Override
@@ -95,17 +197,32 @@ public class QuestLineDatabase extends UuidDatabase<IQuestLine> implements IQues
 
     @Override
     public void setOrderedEntries(Collection<Entry<UUID, IQuestLine>> entries) {
-        clear();
-        entries.forEach(entry -> {
-            put(entry.getKey(), entry.getValue());
-            lineOrder.add(entry.getKey());
-        });
+        Map<UUID, IQuestLine> ordered = new LinkedHashMap<>();
+        entries.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        replaceAll(ordered);
+    }
+
+    /**
+     * Replaces every line in one step. The line order follows the iteration order of the map
+     */
+    @Override
+    public synchronized void replaceAll(Map<? extends UUID, ? extends IQuestLine> map) {
+        synchronized (questLines) {
+            super.replaceAll(map);
+            questLines.clear();
+            map.forEach(this::indexLine);
+        }
+        lineOrder.clear();
+        lineOrder.addAll(map.keySet());
     }
 
     @Override
     public synchronized void clear() {
         super.clear();
         lineOrder.clear();
+        synchronized (questLines) {
+            questLines.clear();
+        }
     }
 
     @Override
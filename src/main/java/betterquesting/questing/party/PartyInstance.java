@@ -25,7 +25,33 @@ public class PartyInstance implements IParty {
     private final HashMap<UUID, EnumPartyStatus> members = new HashMap<>();
     private List<UUID> memCache = null;
 
-    private final PropertyContainer pInfo = new PropertyContainer();
+    // Property edits have to reach the next party save, which skips the file while nothing changed
+    private final PropertyContainer pInfo = new PropertyContainer() {
+
+        @Override
+        public <T> void setProperty(IPropertyType<T> prop, T value) {
+            super.setProperty(prop, value);
+            PartyManager.INSTANCE.markChanged();
+        }
+
+        @Override
+        public void removeProperty(IPropertyType<?> prop) {
+            super.removeProperty(prop);
+            PartyManager.INSTANCE.markChanged();
+        }
+
+        @Override
+        public void removeAllProps() {
+            super.removeAllProps();
+            PartyManager.INSTANCE.markChanged();
+        }
+
+        @Override
+        public void readFromNBT(NBTTagCompound nbt) {
+            super.readFromNBT(nbt);
+            PartyManager.INSTANCE.markChanged();
+        }
+    };
 
     public PartyInstance() {
         this.setupProps();
@@ -61,6 +87,7 @@ public class PartyInstance implements IParty {
 
         if (old == EnumPartyStatus.OWNER && members.size() > 0) hostMigrate();
         refreshCache();
+        PartyManager.INSTANCE.onMembershipChanged(this, uuid);
     }
 
     @Override
@@ -101,6 +128,11 @@ public class PartyInstance implements IParty {
         }
 
         refreshCache();
+        if (old == null) {
+            PartyManager.INSTANCE.onMembershipChanged(this, uuid);
+        } else {
+            PartyManager.INSTANCE.markChanged();
+        }
     }
 
     @Override
@@ -188,6 +220,7 @@ public class PartyInstance implements IParty {
         }
 
         refreshCache();
+        PartyManager.INSTANCE.invalidateIndex();
         this.setupProps();
     }
 
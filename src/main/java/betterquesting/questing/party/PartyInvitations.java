@@ -24,6 +24,7 @@ import betterquesting.api.questing.IQuest;
 import betterquesting.api.questing.party.IParty;
 import betterquesting.api2.storage.INBTPartial;
 import betterquesting.core.BetterQuesting;
+import betterquesting.handlers.SaveLoadHandler;
 import betterquesting.network.handlers.NetInviteSync;
 import betterquesting.network.handlers.NetQuestSync;
 import betterquesting.questing.QuestDatabase;
@@ -59,6 +60,8 @@ public class PartyInvitations implements INBTPartial<NBTTagList, UUID> {
         boolean valid = timestamp > System.currentTimeMillis();
 
         if (valid && party != null) {
+            SaveLoadHandler.INSTANCE.ensureLoaded(party.getMembers());
+
             // Resetting user before joining party
             for (IQuest quest : QuestDatabase.INSTANCE.values()) {
                 quest.resetUser(uuid, true);
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -23,6 +24,7 @@ import betterquesting.api.questing.party.IPartyDatabase;
 import betterquesting.api2.cache.QuestCache;
 import betterquesting.api2.storage.DBEntry;
 import betterquesting.api2.storage.SimpleDatabase;
+import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.core.BetterQuesting;
 import betterquesting.questing.QuestDatabase;
 import betterquesting.storage.NameCache;
@@ -88,7 +90,11 @@ public class PartyManager extends SimpleDatabase<IParty> implements IPartyDataba
         }).start();
     }
 
+    // Member UUID to party ID for every party. Anyone missing is known to be solo
     private final HashMap<UUID, Integer> partyCache = new HashMap<>();
+    private boolean indexValid = false;
+    // Bumped on every change so saves can tell whether the file is still current
+    private final AtomicLong revision = new AtomicLong();
 
     @Override
     public synchronized IParty createNew(int id) {
@@ -103,31 +109,85 @@ public class PartyManager extends SimpleDatabase<IParty> implements IPartyDataba
         if (!QuestSettings.INSTANCE.getProperty(NativeProps.PARTY_ENABLE)) return null; // We're merely preventing
                                                                                         // access. Not erasing data
 
+        if (!indexValid) rebuildIndex();
+
         Integer cachedID = partyCache.get(uuid);
-        IParty cachedParty = cachedID == null ? null : getValue(cachedID);
-
-        if (cachedID != null && cachedParty == null) // Disbanded party
-        {
-            partyCache.remove(uuid);
-        } else if (cachedParty != null) // Active party. Check validity...
-        {
-            EnumPartyStatus status = cachedParty.getStatus(uuid);
-            if (status != null) return new DBEntry<>(cachedID, cachedParty);
-            partyCache.remove(uuid); // User isn't a party member anymore
+        if (cachedID == null) return null;
+
+        IParty cachedParty = getValue(cachedID);
+        if (cachedParty != null && cachedParty.getStatus(uuid) != null) return new DBEntry<>(cachedID, cachedParty);
+
+        // Should never happen while the index is kept up to date
+        partyCache.remove(uuid);
+        return null;
+    }
+
+    @Override
+    public synchronized DBEntry<IParty> add(int id, IParty value) {
+        DBEntry<IParty> entry = super.add(id, value);
+        if (indexValid) {
+            for (UUID mem : value.getMembers()) partyCache.put(mem, id);
         }
+        ParticipantInfo.clearCache();
+        markChanged();
+        return entry;
+    }
 
-        // NOTE: A server with a lot of solo players may still hammer this loop. Optimise further?
-        for (DBEntry<IParty> entry : getEntries()) {
-            EnumPartyStatus status = entry.getValue()
-                .getStatus(uuid);
+    @Override
+    public synchronized boolean removeID(int key) {
+        if (!super.removeID(key)) return false;
+        partyCache.values()
+            .removeIf(id -> id == key);
+        ParticipantInfo.clearCache();
+        markChanged();
+        return true;
+    }
 
-            if (status != null) {
-                partyCache.put(uuid, entry.getID());
-                return entry;
-            }
+    /**
+     * Updates the membership index after a player joined, left or was kicked from the given party
+     */
+    public synchronized void onMembershipChanged(@Nonnull IParty party, @Nonnull UUID uuid) {
+        ParticipantInfo.clearCache();
+        markChanged();
+        if (!indexValid) return;
+
+        int id = getID(party);
+        if (id < 0) return; // Not part of the database (yet)
+
+        if (party.getStatus(uuid) != null) {
+            partyCache.put(uuid, id);
+        } else {
+            partyCache.remove(uuid, id);
         }
+    }
 
-        return null;
+    /**
+     * Drops the membership index so it's rebuilt on the next lookup
+     */
+    public synchronized void invalidateIndex() {
+        indexValid = false;
+        ParticipantInfo.clearCache();
+        markChanged();
+    }
+
+    /**
+     * Called whenever a party's members, statuses or properties change
+     */
+    public void markChanged() {
+        revision.incrementAndGet();
+    }
+
+    public long getRevision() {
+        return revision.get();
+    }
+
+    private void rebuildIndex() {
+        partyCache.clear();
+        for (DBEntry<IParty> entry : getEntries()) {
+            for (UUID mem : entry.getValue()
+                .getMembers()) partyCache.put(mem, entry.getID());
+        }
+        indexValid = true;
     }
 
     @Override
@@ -167,6 +227,9 @@ public class PartyManager extends SimpleDatabase<IParty> implements IPartyDataba
     public synchronized void reset() {
         super.reset();
         partyCache.clear();
+        indexValid = false;
+        ParticipantInfo.clearCache();
+        markChanged();
     }
 
     private static class SyncPlayerContainer {
@@ -3,6 +3,7 @@ package betterquesting.questing.tasks;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
@@ -19,6 +20,27 @@ import betterquesting.api2.storage.SimpleDatabase;
 
 public class TaskStorage extends SimpleDatabase<ITask> implements IDatabaseNBT<ITask, NBTTagList, NBTTagList> {
 
+    @Nullable
+    private final Consumer<UUID> progressListener;
+
+    public TaskStorage() {
+        this(null);
+    }
+
+    /**
+     * @param progressListener Attached to every task added to this storage. See {@link ITask#setProgressListener}
+     */
+    public TaskStorage(@Nullable Consumer<UUID> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public synchronized DBEntry<ITask> add(int id, ITask value) {
+        DBEntry<ITask> entry = super.add(id, value);
+        if (progressListener != null) value.setProgressListener(progressListener);
+        return entry;
+    }
+
     @Override
     public NBTTagList writeToNBT(NBTTagList json, @Nullable List<Integer> subset) {
         for (DBEntry<ITask> entry : getEntries()) {
@@ -1,9 +1,10 @@
 package betterquesting.storage;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -19,17 +20,30 @@ public final class LifeDatabase implements ILifeDatabase {
 
     public static final LifeDatabase INSTANCE = new LifeDatabase();
 
-    private final HashMap<UUID, Integer> playerLives = new HashMap<>();
+    // Concurrent so lookups from sync threads don't need the database lock
+    private final ConcurrentHashMap<UUID, Integer> playerLives = new ConcurrentHashMap<>();
+    // Bumped on every change so saves can tell whether the file is still current
+    private final AtomicLong revision = new AtomicLong();
 
     @Override
-    public synchronized int getLives(@Nonnull UUID uuid) {
-        return playerLives.computeIfAbsent(uuid, (k) -> QuestSettings.INSTANCE.getProperty(NativeProps.LIVES_DEF));
+    public int getLives(@Nonnull UUID uuid) {
+        Integer lives = playerLives.get(uuid);
+        if (lives != null) return lives;
+        return playerLives.computeIfAbsent(uuid, (k) -> {
+            revision.incrementAndGet();
+            return QuestSettings.INSTANCE.getProperty(NativeProps.LIVES_DEF);
+        });
     }
 
     @Override
-    public synchronized void setLives(@Nonnull UUID uuid, int value) {
+    public void setLives(@Nonnull UUID uuid, int value) {
         playerLives
             .put(uuid, MathHelper.clamp_int(value, 0, QuestSettings.INSTANCE.getProperty(NativeProps.LIVES_MAX)));
+        revision.incrementAndGet();
+    }
+
+    public long getRevision() {
+        return revision.get();
     }
 
     @Override
@@ -63,10 +77,12 @@ public final class LifeDatabase implements ILifeDatabase {
                 playerLives.put(uuid, lives);
             } catch (Exception ignored) {}
         }
+        revision.incrementAndGet();
     }
 
     @Override
     public synchronized void reset() {
         playerLives.clear();
+        revision.incrementAndGet();
     }
 }
@@ -3,7 +3,9 @@ package betterquesting.storage;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.UUID;
 
@@ -21,25 +23,28 @@ public final class NameCache implements INameCache {
 
     public static final NameCache INSTANCE = new NameCache();
 
-    private final HashMap<UUID, NBTTagCompound> cache = new HashMap<>();
+    private final HashMap<UUID, PlayerName> cache = new HashMap<>();
+    // Lower case name to UUID, for case insensitive lookups
+    private final HashMap<String, UUID> nameIndex = new HashMap<>();
+
+    private List<String> nameCache = null;
+    // Bumped on every change so saves can tell whether the file is still current
+    private long revision = 0;
 
     @Override
     public synchronized boolean updateName(@Nonnull EntityPlayerMP player) {
         MinecraftServer server = player.mcServer;
-        NBTTagCompound tag = cache.computeIfAbsent(
-            player.getGameProfile()
-                .getId(),
-            (key) -> new NBTTagCompound());
+        UUID uuid = player.getGameProfile()
+            .getId();
+        PlayerName old = cache.get(uuid);
 
         String name = player.getGameProfile()
             .getName();
         boolean isOP = server.getConfigurationManager()
             .func_152596_g(player.getGameProfile());
 
-        if (!tag.getString("name")
-            .equals(name) || tag.getBoolean("isOP") != isOP) {
-            tag.setString("name", name);
-            tag.setBoolean("isOP", isOP);
+        if (old == null || !old.name.equals(name) || old.isOP != isOP) {
+            put(uuid, new PlayerName(name, isOP));
             return true;
         }
 
@@ -48,27 +53,19 @@ public final class NameCache implements INameCache {
 
     @Override
     public synchronized String getName(@Nonnull UUID uuid) {
-        NBTTagCompound tag = cache.get(uuid);
-        return tag == null ? uuid.toString() : tag.getString("name");
+        PlayerName entry = cache.get(uuid);
+        return entry == null ? uuid.toString() : entry.name;
     }
 
     @Override
     public synchronized UUID getUUID(@Nonnull String name) {
-        for (Entry<UUID, NBTTagCompound> entry : cache.entrySet()) {
-            if (entry.getValue()
-                .getString("name")
-                .equalsIgnoreCase(name)) {
-                return entry.getKey();
-            }
-        }
-
-        return null;
+        return nameIndex.get(name.toLowerCase(Locale.ROOT));
     }
 
     @Override
     public synchronized boolean isOP(@Nonnull UUID uuid) {
-        NBTTagCompound tag = cache.get(uuid);
-        return tag != null && tag.getBoolean("isOP");
+        PlayerName entry = cache.get(uuid);
+        return entry != null && entry.isOP;
     }
 
     @Override
@@ -78,30 +75,32 @@ public final class NameCache implements INameCache {
 
     @Override
     public synchronized NBTTagList writeToNBT(NBTTagList nbt, @Nullable List<UUID> users) {
-        for (Entry<UUID, NBTTagCompound> entry : cache.entrySet()) {
-            if (users != null && !users.contains(entry.getKey())) continue;
-            NBTTagCompound jn = new NBTTagCompound();
-            jn.setString(
-                "uuid",
-                entry.getKey()
-                    .toString());
-            jn.setString(
-                "name",
-                entry.getValue()
-                    .getString("name"));
-            jn.setBoolean(
-                "isOP",
-                entry.getValue()
-                    .getBoolean("isOP"));
-            nbt.appendTag(jn);
+        if (users == null) {
+            for (Entry<UUID, PlayerName> entry : cache.entrySet()) {
+                nbt.appendTag(writeEntry(entry.getKey(), entry.getValue()));
+            }
+        } else {
+            // Look the subset up directly rather than filtering the whole cache against it
+            for (UUID uuid : new LinkedHashSet<>(users)) {
+                PlayerName entry = cache.get(uuid);
+                if (entry != null) nbt.appendTag(writeEntry(uuid, entry));
+            }
         }
 
         return nbt;
     }
 
+    private static NBTTagCompound writeEntry(UUID uuid, PlayerName entry) {
+        NBTTagCompound jn = new NBTTagCompound();
+        jn.setString("uuid", uuid.toString());
+        jn.setString("name", entry.name);
+        jn.setBoolean("isOP", entry.isOP);
+        return jn;
+    }
+
     @Override
-    public void readFromNBT(NBTTagList nbt, boolean merge) {
-        if (!merge) cache.clear();
+    public synchronized void readFromNBT(NBTTagList nbt, boolean merge) {
+        if (!merge) reset();
         for (int i = 0; i < nbt.tagCount(); i++) {
             NBTTagCompound jn = nbt.getCompoundTagAt(i);
 
@@ -110,10 +109,7 @@ public final class NameCache implements INameCache {
                 String name = jn.getString("name");
                 boolean isOP = jn.getBoolean("isOP");
 
-                NBTTagCompound j2 = new NBTTagCompound();
-                j2.setString("name", name);
-                j2.setBoolean("isOP", isOP);
-                cache.put(uuid, j2);
+                put(uuid, new PlayerName(name, isOP));
             } catch (Exception ignored) {}
         }
     }
@@ -121,23 +117,59 @@ public final class NameCache implements INameCache {
     @Override
     public synchronized void reset() {
         cache.clear();
+        nameIndex.clear();
         nameCache = null;
+        revision++;
     }
 
-    private List<String> nameCache = null;
-
     @Override
     public synchronized List<String> getAllNames() {
         if (nameCache != null) return nameCache;
 
-        nameCache = new ArrayList<>();
+        List<String> names = new ArrayList<>(cache.size());
+
+        for (PlayerName entry : cache.values()) {
+            if (!entry.name.isEmpty()) names.add(entry.name);
+        }
 
-        for (NBTTagCompound tag : cache.values()) {
-            if (tag != null && tag.hasKey("name", 8)) {
-                nameCache.add(tag.getString("name"));
+        nameCache = Collections.unmodifiableList(names);
+        return nameCache;
+    }
+
+    public synchronized long getRevision() {
+        return revision;
+    }
+
+    private void put(UUID uuid, PlayerName entry) {
+        PlayerName old = cache.put(uuid, entry);
+        nameCache = null;
+        revision++;
+
+        if (old != null && !old.lowerName.equals(entry.lowerName) && uuid.equals(nameIndex.get(old.lowerName))) {
+            nameIndex.remove(old.lowerName);
+
+            // Another player may have used this name before, keep them findable
+            for (Entry<UUID, PlayerName> other : cache.entrySet()) {
+                if (other.getValue().lowerName.equals(old.lowerName)) {
+                    nameIndex.put(old.lowerName, other.getKey());
+                    break;
+                }
             }
         }
 
-        return Collections.unmodifiableList(nameCache);
+        nameIndex.put(entry.lowerName, uuid);
+    }
+
+    private static final class PlayerName {
+
+        private final String name;
+        private final String lowerName;
+        private final boolean isOP;
+
+        private PlayerName(String name, boolean isOP) {
+            this.name = name;
+            this.lowerName = name.toLowerCase(Locale.ROOT);
+            this.isOP = isOP;
+        }
     }
 }
@@ -2,7 +2,9 @@ package betterquesting.storage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
@@ -14,7 +16,13 @@ import betterquesting.api2.storage.INBTSaveLoad;
 
 public class PropertyContainer implements IPropertyContainer, INBTSaveLoad<NBTTagCompound> {
 
+    // Markers for properties that are not set or that decoded to null
+    private static final Object ABSENT = new Object();
+    private static final Object NULL = new Object();
+
     private final NBTTagCompound nbtInfo = new NBTTagCompound();
+    // Decoded values, filled under the nbtInfo lock and wiped on every change so reads never touch the NBT again
+    private final Map<IPropertyType<?>, Object> decoded = new ConcurrentHashMap<>();
 
     @Override
     public <T> T getProperty(IPropertyType<T> prop) {
@@ -24,22 +32,34 @@ public class PropertyContainer implements IPropertyContainer, INBTSaveLoad<NBTTa
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T getProperty(IPropertyType<T> prop, T def) {
         if (prop == null) return def;
 
-        synchronized (nbtInfo) {
-            NBTTagCompound jProp = getDomain(prop.getKey());
+        Object value = decoded.get(prop);
 
-            if (!jProp.hasKey(
-                prop.getKey()
-                    .getResourcePath()))
-                return def;
+        if (value == null) {
+            synchronized (nbtInfo) {
+                NBTTagCompound jProp = getDomain(prop.getKey());
 
-            return prop.readValue(
-                jProp.getTag(
+                if (!jProp.hasKey(
                     prop.getKey()
-                        .getResourcePath()));
+                        .getResourcePath())) {
+                    value = ABSENT;
+                } else {
+                    value = prop.readValue(
+                        jProp.getTag(
+                            prop.getKey()
+                                .getResourcePath()));
+                    if (value == null) value = NULL;
+                }
+
+                decoded.put(prop, value);
+            }
         }
+
+        if (value == ABSENT) return def;
+        return value == NULL ? null : (T) value;
     }
 
     @Override
@@ -72,6 +92,7 @@ public class PropertyContainer implements IPropertyContainer, INBTSaveLoad<NBTTa
             if (jProp.hasNoTags()) nbtInfo.removeTag(
                 prop.getKey()
                     .getResourceDomain());
+            decoded.clear();
         }
     }
 
@@ -89,6 +110,7 @@ public class PropertyContainer implements IPropertyContainer, INBTSaveLoad<NBTTa
                 prop.getKey()
                     .getResourceDomain(),
                 dom);
+            decoded.clear();
         }
     }
 
@@ -98,6 +120,7 @@ public class PropertyContainer implements IPropertyContainer, INBTSaveLoad<NBTTa
         synchronized (nbtInfo) {
             List<String> keys = new ArrayList<>((Set<String>) nbtInfo.func_150296_c());
             for (String key : keys) nbtInfo.removeTag(key);
+            decoded.clear();
         }
     }
 
@@ -114,6 +137,7 @@ public class PropertyContainer implements IPropertyContainer, INBTSaveLoad<NBTTa
         synchronized (nbtInfo) {
             removeAllProps();
             merge(nbtInfo, nbt);
+            decoded.clear();
         }
     }
 
@@ -6,9 +6,14 @@ import net.minecraft.block.Block;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.Item;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.oredict.OreDictionary;
+
+import org.apache.commons.lang3.ArrayUtils;
 
 import betterquesting.api.placeholders.ItemPlaceholder;
 import betterquesting.api.utils.BigItemStack;
+import betterquesting.api2.utils.NBTPredicate;
+import bq_standard.tasks.BlockContext;
 
 public class NbtBlockType // TODO: Make a version of this for the base mod and give it a dedicated editor
 {
@@ -19,6 +24,10 @@ public class NbtBlockType // TODO: Make a version of this for the base mod and g
     public String oreDict = "";
     public NBTTagCompound tags = new NBTTagCompound();
 
+    private NBTPredicate tagPredicate = null;
+    private String oreName = null;
+    private int oreID = -1;
+
     public NbtBlockType() {}
 
     public NbtBlockType(Block block) {
@@ -52,6 +61,38 @@ public class NbtBlockType // TODO: Make a version of this for the base mod and g
         oreDict = json.getString("oreDict");
     }
 
+    /**
+     * Partial match of the sample against {@link #tags}, compiled on first use and again whenever tags is reassigned
+     */
+    public boolean matchesTags(@Nullable NBTTagCompound sample) {
+        tagPredicate = NBTPredicate.update(tagPredicate, tags, true);
+        return tagPredicate.test(sample);
+    }
+
+    /**
+     * Whether the block is this target, directly or through its ore name, and its tile data matches {@link #tags}
+     */
+    public boolean matches(BlockContext block) {
+        boolean wildcard = m < 0 || m == OreDictionary.WILDCARD_VALUE;
+        int ore = getOreID();
+        boolean oreMatch = ore >= 0 && ArrayUtils.contains(block.getOreIDs(wildcard), ore);
+
+        if (!oreMatch && (block.block != b || (m >= 0 && block.meta != m))) return false;
+        return matchesTags(block.getTileTags());
+    }
+
+    /**
+     * Ore ID of {@link #oreDict}, or -1 if none is set
+     */
+    public int getOreID() {
+        String name = oreDict == null ? "" : oreDict;
+        if (!name.equals(oreName)) {
+            oreName = name;
+            oreID = name.isEmpty() ? -1 : OreDictionary.getOreID(name);
+        }
+        return oreID;
+    }
+
     @Nullable
     public BigItemStack getItemStack() {
         BigItemStack stack;
@@ -2,8 +2,7 @@ package bq_standard.handlers;
 
 import java.util.ArrayDeque;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.UUID;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
 import java.util.function.IntSupplier;
@@ -34,14 +33,17 @@ import betterquesting.api.api.ApiReference;
 import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.events.BQLivingUpdateEvent;
 import betterquesting.api.properties.NativeProps;
-import betterquesting.api.questing.IQuest;
-import betterquesting.api.questing.tasks.ITask;
-import betterquesting.api2.storage.DBEntry;
+import betterquesting.api2.cache.QuestCache;
 import betterquesting.api2.utils.ParticipantInfo;
 import bq_standard.core.BQ_Standard;
 import bq_standard.network.handlers.NetLootSync;
+import bq_standard.tasks.BlockBreakIndex;
+import bq_standard.tasks.BlockContext;
+import bq_standard.tasks.EntityContext;
 import bq_standard.tasks.ITaskInventory;
 import bq_standard.tasks.ITaskTickable;
+import bq_standard.tasks.InventoryDelta;
+import bq_standard.tasks.ItemContext;
 import bq_standard.tasks.TaskBlockBreak;
 import bq_standard.tasks.TaskCrafting;
 import bq_standard.tasks.TaskHunt;
@@ -66,21 +68,22 @@ public class EventHandler {
             || event.isCanceled()) return;
 
         EntityPlayer player = event.entityPlayer;
-        ParticipantInfo pInfo = new ParticipantInfo(player);
+        ParticipantInfo pInfo = ParticipantInfo.of(player);
+
+        List<QuestCache.ActiveTask<TaskInteractItem>> tasks = pInfo.getSharedTasks(TaskInteractItem.class);
+        if (tasks.isEmpty()) return;
 
         Block block = player.worldObj.getBlock(event.x, event.y, event.z);
         int meta = player.worldObj.getBlockMetadata(event.x, event.y, event.z);
         boolean isHit = event.action == Action.LEFT_CLICK_BLOCK;
 
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskInteractItem) ((TaskInteractItem) task.getValue())
-                    .onInteract(pInfo, entry, player.getHeldItem(), block, meta, event.x, event.y, event.z, isHit);
-            }
+        // Shared by every task so tile data and ore IDs are looked up at most once
+        ItemContext item = new ItemContext(player.getHeldItem());
+        BlockContext target = new BlockContext(player.worldObj, block, meta, event.x, event.y, event.z);
+
+        for (QuestCache.ActiveTask<TaskInteractItem> task : tasks) {
+            task.getTask()
+                .onInteract(pInfo, task.getQuest(), item, target, isHit);
         }
     }
 
@@ -92,17 +95,14 @@ public class EventHandler {
             || event.isCanceled()) return;
 
         EntityPlayer player = event.entityPlayer;
-        ParticipantInfo pInfo = new ParticipantInfo(player);
-
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskInteractEntity) ((TaskInteractEntity) task.getValue())
-                    .onInteract(pInfo, entry, player.getHeldItem(), event.target, true);
-            }
+        ParticipantInfo pInfo = ParticipantInfo.of(player);
+
+        ItemContext item = new ItemContext(player.getHeldItem());
+        EntityContext target = new EntityContext(event.target);
+
+        for (QuestCache.ActiveTask<TaskInteractEntity> task : pInfo.getSharedTasks(TaskInteractEntity.class)) {
+            task.getTask()
+                .onInteract(pInfo, task.getQuest(), item, target, true);
         }
     }
 
@@ -114,17 +114,14 @@ public class EventHandler {
             || event.isCanceled()) return;
 
         EntityPlayer player = event.entityPlayer;
-        ParticipantInfo pInfo = new ParticipantInfo(player);
-
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskInteractEntity) ((TaskInteractEntity) task.getValue())
-                    .onInteract(pInfo, entry, player.getHeldItem(), event.target, false);
-            }
+        ParticipantInfo pInfo = ParticipantInfo.of(player);
+
+        ItemContext item = new ItemContext(player.getHeldItem());
+        EntityContext target = new EntityContext(event.target);
+
+        for (QuestCache.ActiveTask<TaskInteractEntity> task : pInfo.getSharedTasks(TaskInteractEntity.class)) {
+            task.getTask()
+                .onInteract(pInfo, task.getQuest(), item, target, false);
         }
     }
 
@@ -132,7 +129,7 @@ public class EventHandler {
     public void onItemCrafted(ItemCraftedEvent event) {
         if (event.player == null || event.player instanceof FakePlayer || event.player.worldObj.isRemote) return;
 
-        ParticipantInfo pInfo = new ParticipantInfo(event.player);
+        ParticipantInfo pInfo = ParticipantInfo.of(event.player);
 
         IntSupplier realStackSizeSupplier = null;
         if (event.craftMatrix instanceof InventoryCrafting && event.crafting.stackSize == 0) // Hack for broken-ass
@@ -157,15 +154,9 @@ public class EventHandler {
             };
         }
 
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskCrafting)
-                    ((TaskCrafting) task.getValue()).onItemCraft(pInfo, entry, event.crafting, realStackSizeSupplier);
-            }
+        for (QuestCache.ActiveTask<TaskCrafting> task : pInfo.getSharedTasks(TaskCrafting.class)) {
+            task.getTask()
+                .onItemCraft(pInfo, task.getQuest(), event.crafting, realStackSizeSupplier);
         }
     }
 
@@ -176,21 +167,15 @@ public class EventHandler {
     {
         if (event.player == null || event.player instanceof FakePlayer || event.player.worldObj.isRemote) return;
 
-        ParticipantInfo pInfo = new ParticipantInfo(event.player);
+        ParticipantInfo pInfo = ParticipantInfo.of(event.player);
 
         ItemStack refStack = event.smelting.copy();
         if (refStack.stackSize <= 0) refStack.stackSize = 1; // Doesn't really fix much but it's better than nothing I
                                                              // suppose
 
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskCrafting)
-                    ((TaskCrafting) task.getValue()).onItemSmelt(pInfo, entry, refStack);
-            }
+        for (QuestCache.ActiveTask<TaskCrafting> task : pInfo.getSharedTasks(TaskCrafting.class)) {
+            task.getTask()
+                .onItemSmelt(pInfo, task.getQuest(), refStack);
         }
     }
 
@@ -200,17 +185,11 @@ public class EventHandler {
         if (event.entityPlayer == null || event.entityPlayer instanceof FakePlayer
             || event.entityPlayer.worldObj.isRemote) return;
 
-        ParticipantInfo pInfo = new ParticipantInfo(event.entityPlayer);
+        ParticipantInfo pInfo = ParticipantInfo.of(event.entityPlayer);
 
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskCrafting)
-                    ((TaskCrafting) task.getValue()).onItemAnvil(pInfo, entry, event.output.copy());
-            }
+        for (QuestCache.ActiveTask<TaskCrafting> task : pInfo.getSharedTasks(TaskCrafting.class)) {
+            task.getTask()
+                .onItemAnvil(pInfo, task.getQuest(), event.output.copy());
         }
     }
 
@@ -222,17 +201,14 @@ public class EventHandler {
             || event.isCanceled()) return;
 
         EntityPlayer player = (EntityPlayer) event.source.getEntity();
-        ParticipantInfo pInfo = new ParticipantInfo(player);
-
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskHunt)
-                    ((TaskHunt) task.getValue()).onKilledByPlayer(pInfo, entry, event.entityLiving, event.source);
-            }
+        ParticipantInfo pInfo = ParticipantInfo.of(player);
+
+        // Shared by every hunt task so the victim is only looked up and saved once
+        EntityContext victim = new EntityContext(event.entityLiving);
+
+        for (QuestCache.ActiveTask<TaskHunt> task : pInfo.getSharedTasks(TaskHunt.class)) {
+            task.getTask()
+                .onKilledByPlayer(pInfo, task.getQuest(), victim, event.source);
         }
     }
 
@@ -242,18 +218,10 @@ public class EventHandler {
             || event.getPlayer().worldObj.isRemote
             || event.isCanceled()) return;
 
-        ParticipantInfo pInfo = new ParticipantInfo(event.getPlayer());
+        ParticipantInfo pInfo = ParticipantInfo.of(event.getPlayer());
 
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof TaskBlockBreak) ((TaskBlockBreak) task.getValue())
-                    .onBlockBreak(pInfo, entry, event.block, event.blockMetadata, event.x, event.y, event.z);
-            }
-        }
+        BlockBreakIndex.get(pInfo.PLAYER, pInfo.getSharedTasks(TaskBlockBreak.class))
+            .onBlockBreak(pInfo, event.block, event.blockMetadata, event.x, event.y, event.z);
     }
 
     @SubscribeEvent
@@ -265,18 +233,11 @@ public class EventHandler {
             return;
 
         EntityPlayer player = (EntityPlayer) event.entityLiving;
-        ParticipantInfo pInfo = new ParticipantInfo(player);
-
-        for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-            .filterKeys(pInfo.getSharedQuests())
-            .entrySet()) {
-            for (DBEntry<ITask> task : entry.getValue()
-                .getTasks()
-                .getEntries()) {
-                if (task.getValue() instanceof ITaskTickable) {
-                    ((ITaskTickable) task.getValue()).tickTask(pInfo, entry);
-                }
-            }
+        ParticipantInfo pInfo = ParticipantInfo.of(player);
+
+        for (QuestCache.ActiveTask<ITaskTickable> task : pInfo.getSharedTasks(ITaskTickable.class)) {
+            task.getTask()
+                .tickTask(pInfo, task.getQuest());
         }
     }
 
@@ -352,17 +313,12 @@ public class EventHandler {
                 if (player == null || player.inventory == null) {
                     continue;
                 }
-                ParticipantInfo pInfo = new ParticipantInfo(player);
-
-                for (Map.Entry<UUID, IQuest> entry : QuestingAPI.getAPI(ApiReference.QUEST_DB)
-                    .filterKeys(pInfo.getSharedQuests())
-                    .entrySet()) {
-                    for (DBEntry<ITask> task : entry.getValue()
-                        .getTasks()
-                        .getEntries()) {
-                        if (task.getValue() instanceof ITaskInventory)
-                            ((ITaskInventory) task.getValue()).onInventoryChange(entry, pInfo);
-                    }
+                ParticipantInfo pInfo = ParticipantInfo.of(player);
+                InventoryDelta delta = PlayerContainerListener.takeDelta(player);
+
+                for (QuestCache.ActiveTask<ITaskInventory> task : pInfo.getSharedTasks(ITaskInventory.class)) {
+                    task.getTask()
+                        .onInventoryChange(task.getQuest(), pInfo, delta);
                 }
             }
             playerInventoryUpdates.clear();
@@ -26,19 +26,19 @@ public class LootSaveLoad {
         }
 
         File f1 = new File(worldDir, "QuestLoot.json");
-        JsonObject j1 = new JsonObject();
+        NBTTagCompound j1 = new NBTTagCompound();
 
         if (f1.exists()) {
-            j1 = JsonHelper.ReadFromFile(f1);
+            j1 = JsonHelper.ReadNBTFromFile(f1, true);
         } else {
             f1 = server.getFile("config/betterquesting/DefaultLoot.json");
 
             if (f1.exists()) {
-                j1 = JsonHelper.ReadFromFile(f1);
+                j1 = JsonHelper.ReadNBTFromFile(f1, true);
             }
         }
 
-        LootRegistry.INSTANCE.readFromNBT(NBTConverter.JSONtoNBT_Object(j1, new NBTTagCompound(), true), false);
+        LootRegistry.INSTANCE.readFromNBT(j1, false);
     }
 
     public void SaveLoot() {
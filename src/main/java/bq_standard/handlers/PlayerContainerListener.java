@@ -1,7 +1,10 @@
 package bq_standard.handlers;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.annotation.Nonnull;
@@ -12,6 +15,7 @@ import net.minecraft.inventory.ICrafting;
 import net.minecraft.item.ItemStack;
 
 import betterquesting.api.api.QuestingAPI;
+import bq_standard.tasks.InventoryDelta;
 
 public class PlayerContainerListener implements ICrafting {
 
@@ -32,21 +36,44 @@ public class PlayerContainerListener implements ICrafting {
         } catch (Exception ignored) {}
     }
 
+    /**
+     * Takes the slot changes recorded for the player since the last call
+     */
+    @Nonnull
+    static InventoryDelta takeDelta(@Nonnull EntityPlayer player) {
+        PlayerContainerListener listener = LISTEN_MAP.get(QuestingAPI.getQuestingUUID(player));
+        return listener == null ? InventoryDelta.FULL : listener.takeDelta();
+    }
+
     private EntityPlayer player;
 
+    // Main inventory as of the last reported change, indexed like InventoryPlayer
+    private final ItemStack[] slots = new ItemStack[36];
+    // Contents of each slot changed since the last delta was taken, before its first change
+    private final Map<Integer, ItemStack> pendingOld = new LinkedHashMap<>();
+    private boolean fullRescan = true;
+
     private PlayerContainerListener(@Nonnull EntityPlayer player) {
         this.player = player;
     }
 
     @Override
-    public void sendContainerAndContentsToPlayer(Container container, List nonNullList) {
+    public synchronized void sendContainerAndContentsToPlayer(Container container, List nonNullList) {
+        for (int i = 9; i <= 44 && i < nonNullList.size(); i++) {
+            slots[toInventorySlot(i)] = ItemStack.copyItemStack((ItemStack) nonNullList.get(i));
+        }
+        pendingOld.clear();
+        fullRescan = true;
         updateTasks();
     }
 
     @Override
-    public void sendSlotContents(Container container, int i, ItemStack itemStack) {
+    public synchronized void sendSlotContents(Container container, int i, ItemStack itemStack) {
         // Ignore changes outside of main inventory (e.g. crafting grid and armor)
         if (i >= 9 && i <= 44) {
+            int slot = toInventorySlot(i);
+            if (!fullRescan && !pendingOld.containsKey(slot)) pendingOld.put(slot, slots[slot]);
+            slots[slot] = ItemStack.copyItemStack(itemStack);
             updateTasks();
         }
     }
@@ -54,6 +81,29 @@ public class PlayerContainerListener implements ICrafting {
     @Override
     public void sendProgressBarUpdate(Container container, int i, int i1) {}
 
+    private synchronized InventoryDelta takeDelta() {
+        if (fullRescan) {
+            fullRescan = false;
+            return InventoryDelta.FULL;
+        }
+
+        List<InventoryDelta.SlotChange> changes = new ArrayList<>(pendingOld.size());
+        for (Map.Entry<Integer, ItemStack> entry : pendingOld.entrySet()) {
+            ItemStack current = slots[entry.getKey()];
+            // Changed and changed back within the same tick
+            if (ItemStack.areItemStacksEqual(entry.getValue(), current)) continue;
+            changes.add(new InventoryDelta.SlotChange(entry.getKey(), entry.getValue(), current));
+        }
+        pendingOld.clear();
+
+        return new InventoryDelta(false, changes);
+    }
+
+    // Container slots 9-35 are the main inventory, 36-44 the hotbar
+    private static int toInventorySlot(int containerSlot) {
+        return containerSlot >= 36 ? containerSlot - 36 : containerSlot;
+    }
+
     private void updateTasks() {
         EventHandler.schedulePlayerInventoryCheck(player);
     }
@@ -113,7 +113,7 @@ public class HQMQuestImporter implements IImporter {
         .create();
 
     private static JsonArray ReadArrayFromFile(File file) {
-        Future<JsonArray> task = BQThreadedIO.INSTANCE.enqueue(() -> {
+        Future<JsonArray> task = BQThreadedIO.DISK_READ.enqueue(() -> {
             if (file == null || !file.exists()) {
                 return new JsonArray();
             }
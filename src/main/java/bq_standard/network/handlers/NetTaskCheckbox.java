@@ -55,7 +55,7 @@ public class NetTaskCheckbox {
                     .getValue(tId);
 
             if (task instanceof TaskCheckbox) {
-                ParticipantInfo pInfo = new ParticipantInfo(sender);
+                ParticipantInfo pInfo = ParticipantInfo.of(sender);
                 List<UUID> playersToMark = QBConfig.fullySyncQuests ? pInfo.ALL_UUIDS
                     : Collections.singletonList(pInfo.UUID);
                 for (UUID user : playersToMark) {
@@ -16,6 +16,8 @@ import betterquesting.api.questing.tasks.ITask;
 import betterquesting.api2.storage.DBEntry;
 import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.api2.utils.Tuple2;
+import bq_standard.tasks.BlockContext;
+import bq_standard.tasks.ItemContext;
 import bq_standard.tasks.TaskInteractItem;
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
@@ -41,26 +43,27 @@ public class NetTaskInteract {
         EntityPlayerMP sender = message.getSecond();
         NBTTagCompound tag = message.getFirst();
 
-        ParticipantInfo pInfo = new ParticipantInfo(sender);
+        ParticipantInfo pInfo = ParticipantInfo.of(sender);
         Map<UUID, IQuest> actQuest = QuestingAPI.getAPI(ApiReference.QUEST_DB)
             .filterKeys(pInfo.getSharedQuests());
 
         boolean isHit = tag.getBoolean("isHit");
+        // No item or block is involved in these, only the hit or use itself counts
+        ItemContext item = new ItemContext(null);
+        BlockContext block = new BlockContext(
+            sender.worldObj,
+            null,
+            -1,
+            MathHelper.floor_double(sender.posX),
+            MathHelper.floor_double(sender.posY),
+            MathHelper.floor_double(sender.posZ));
 
         for (Map.Entry<UUID, IQuest> entry : actQuest.entrySet()) {
             for (DBEntry<ITask> task : entry.getValue()
                 .getTasks()
                 .getEntries()) {
-                if (task.getValue() instanceof TaskInteractItem) ((TaskInteractItem) task.getValue()).onInteract(
-                    pInfo,
-                    entry,
-                    null,
-                    null,
-                    -1,
-                    MathHelper.floor_double(sender.posX),
-                    MathHelper.floor_double(sender.posY),
-                    MathHelper.floor_double(sender.posZ),
-                    isHit);
+                if (task.getValue() instanceof TaskInteractItem)
+                    ((TaskInteractItem) task.getValue()).onInteract(pInfo, entry, item, block, isHit);
             }
         }
     }
@@ -0,0 +1,102 @@
+package bq_standard.tasks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import betterquesting.api2.cache.QuestCache;
+import betterquesting.api2.utils.IntArrays;
+import betterquesting.api2.utils.ParticipantInfo;
+import bq_standard.NbtBlockType;
+
+/**
+ * Active block break tasks of a player indexed by the blocks they target, so a break only visits the tasks that can
+ * count it. Rebuilt whenever the player's active task list changes
+ */
+public final class BlockBreakIndex {
+
+    private static final Map<EntityPlayer, BlockBreakIndex> INDICES = new WeakHashMap<>();
+    private static final int[] NONE = new int[0];
+    // Ore ID cache slot for the wildcard stack, metas 0-15 use their own slot
+    private static final int WILDCARD_SLOT = 16;
+
+    private final List<QuestCache.ActiveTask<TaskBlockBreak>> tasks;
+    private final Map<Block, int[]> byBlock = new HashMap<>();
+    // Tasks with an ore dictionary target, these can match any block listed under that ore
+    private final int[] oreTasks;
+    private final Map<Block, int[][]> oreIDs = new HashMap<>();
+
+    private BlockBreakIndex(List<QuestCache.ActiveTask<TaskBlockBreak>> tasks) {
+        this.tasks = tasks;
+        int[] ores = NONE;
+
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskBlockBreak task = tasks.get(i)
+                .getTask();
+            boolean hasOre = false;
+
+            for (NbtBlockType target : task.blockTypes) {
+                if (target.b != null) {
+                    int[] indices = byBlock.get(target.b);
+                    if (indices == null || indices[indices.length - 1] != i) {
+                        byBlock.put(target.b, IntArrays.append(indices, i));
+                    }
+                }
+                hasOre |= target.getOreID() >= 0;
+            }
+            if (hasOre) ores = IntArrays.append(ores, i);
+        }
+
+        oreTasks = ores;
+    }
+
+    @Nonnull
+    public static BlockBreakIndex get(@Nonnull EntityPlayer player,
+        @Nonnull List<QuestCache.ActiveTask<TaskBlockBreak>> tasks) {
+        BlockBreakIndex index = INDICES.get(player);
+        if (index == null || !index.tasks.equals(tasks)) {
+            index = new BlockBreakIndex(tasks);
+            INDICES.put(player, index);
+        }
+        return index;
+    }
+
+    public void onBlockBreak(ParticipantInfo pInfo, Block block, int meta, int x, int y, int z) {
+        int[] candidates = byBlock.get(block);
+        if (oreTasks.length > 0 && getOreIDs(block, meta).length > 0) {
+            candidates = IntArrays.merge(candidates, oreTasks);
+        }
+        if (candidates == null) return;
+
+        BlockContext broken = new BlockContext(this, pInfo.PLAYER.worldObj, block, meta, x, y, z);
+        for (int i : candidates) {
+            QuestCache.ActiveTask<TaskBlockBreak> task = tasks.get(i);
+            task.getTask()
+                .onBlockBreak(pInfo, task.getQuest(), broken);
+        }
+    }
+
+    int[] getOreIDs(Block block, int damage) {
+        int slot = damage == OreDictionary.WILDCARD_VALUE ? WILDCARD_SLOT : damage;
+        if (slot < 0 || slot > WILDCARD_SLOT) return lookupOreIDs(block, damage);
+
+        int[][] cached = oreIDs.computeIfAbsent(block, k -> new int[WILDCARD_SLOT + 1][]);
+        if (cached[slot] == null) cached[slot] = lookupOreIDs(block, damage);
+        return cached[slot];
+    }
+
+    static int[] lookupOreIDs(@Nullable Block block, int damage) {
+        Item item = block == null ? null : Item.getItemFromBlock(block);
+        return item == null ? NONE : OreDictionary.getOreIDs(new ItemStack(item, 1, damage));
+    }
+}
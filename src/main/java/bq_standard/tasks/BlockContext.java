@@ -0,0 +1,77 @@
+package bq_standard.tasks;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.block.Block;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.OreDictionary;
+
+/**
+ * A block involved in an event, shared by every task checking it. Tile data and ore IDs are only looked up when a
+ * target asks for them
+ */
+public final class BlockContext {
+
+    @Nullable
+    private final BlockBreakIndex index;
+    private final World world;
+    @Nullable
+    public final Block block;
+    public final int meta;
+    public final int x;
+    public final int y;
+    public final int z;
+
+    private boolean tileRead = false;
+    private NBTTagCompound tileTags = null;
+    private int[] oreIDs = null;
+    private int[] wildcardOreIDs = null;
+
+    public BlockContext(World world, @Nullable Block block, int meta, int x, int y, int z) {
+        this(null, world, block, meta, x, y, z);
+    }
+
+    BlockContext(@Nullable BlockBreakIndex index, World world, @Nullable Block block, int meta, int x, int y, int z) {
+        this.index = index;
+        this.world = world;
+        this.block = block;
+        this.meta = meta;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Ore IDs of the block at its meta, or of its wildcard stack only
+     */
+    public int[] getOreIDs(boolean wildcard) {
+        int damage = wildcard ? OreDictionary.WILDCARD_VALUE : meta;
+        // Block breaks share the index's cache across events
+        if (index != null && block != null) return index.getOreIDs(block, damage);
+
+        if (wildcard) {
+            if (wildcardOreIDs == null) wildcardOreIDs = BlockBreakIndex.lookupOreIDs(block, damage);
+            return wildcardOreIDs;
+        }
+        if (oreIDs == null) oreIDs = BlockBreakIndex.lookupOreIDs(block, damage);
+        return oreIDs;
+    }
+
+    /**
+     * Saved tile entity data, or null if the block has none
+     */
+    @Nullable
+    public NBTTagCompound getTileTags() {
+        if (!tileRead) {
+            tileRead = true;
+            TileEntity tile = block != null && block.hasTileEntity(meta) ? world.getTileEntity(x, y, z) : null;
+            if (tile != null) {
+                tileTags = new NBTTagCompound();
+                tile.writeToNBT(tileTags);
+            }
+        }
+        return tileTags;
+    }
+}
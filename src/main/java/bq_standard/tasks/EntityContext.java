@@ -0,0 +1,61 @@
+package bq_standard.tasks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityList;
+import net.minecraft.nbt.NBTTagCompound;
+
+/**
+ * An entity involved in an event, shared by every task checking it. The registry name and saved data are only looked
+ * up once, and the data only if a task compares it
+ */
+public final class EntityContext {
+
+    public final Entity entity;
+
+    private boolean idRead = false;
+    private String entityID = null;
+    private NBTTagCompound tags = null;
+
+    public EntityContext(@Nonnull Entity entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * Registered name of the entity, or null if it isn't registered
+     */
+    @Nullable
+    public String getEntityID() {
+        if (!idRead) {
+            idRead = true;
+            entityID = EntityList.getEntityString(entity);
+        }
+        return entityID;
+    }
+
+    /**
+     * Whether the entity is the registered target, or extends it if subtypes are allowed. Never true for unregistered
+     * entities or targets
+     */
+    public boolean isTarget(@Nonnull String targetID, boolean subtypes) {
+        String subjectID = getEntityID();
+        Class<?> target = (Class<?>) EntityList.stringToClassMapping.get(targetID);
+        if (subjectID == null || target == null) return false;
+
+        return subtypes ? target.isAssignableFrom(entity.getClass()) : subjectID.equals(targetID);
+    }
+
+    /**
+     * Saved data of the entity. Read only, it is shared with other tasks
+     */
+    @Nonnull
+    public NBTTagCompound getTags() {
+        if (tags == null) {
+            tags = new NBTTagCompound();
+            entity.writeToNBTOptional(tags);
+        }
+        return tags;
+    }
+}
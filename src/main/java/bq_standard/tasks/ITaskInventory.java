@@ -12,4 +12,13 @@ import betterquesting.api2.utils.ParticipantInfo;
 public interface ITaskInventory extends ITask {
 
     void onInventoryChange(@Nonnull Map.Entry<UUID, IQuest> quest, @Nonnull ParticipantInfo pInfo);
+
+    /**
+     * Called instead of {@link #onInventoryChange(Map.Entry, ParticipantInfo)} when the changed slots are known. Tasks
+     * may skip the check if none of the changes concern them
+     */
+    default void onInventoryChange(@Nonnull Map.Entry<UUID, IQuest> quest, @Nonnull ParticipantInfo pInfo,
+        @Nonnull InventoryDelta delta) {
+        onInventoryChange(quest, pInfo);
+    }
 }
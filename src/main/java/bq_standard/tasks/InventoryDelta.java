@@ -0,0 +1,70 @@
+package bq_standard.tasks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.item.ItemStack;
+
+/**
+ * Main inventory slots of a player that changed since the last inventory check
+ */
+public final class InventoryDelta {
+
+    /**
+     * Nothing is known about what changed, the whole inventory has to be checked
+     */
+    public static final InventoryDelta FULL = new InventoryDelta(true, Collections.emptyList());
+
+    private final boolean fullRescan;
+    private final List<SlotChange> changes;
+
+    public InventoryDelta(boolean fullRescan, @Nonnull List<SlotChange> changes) {
+        this.fullRescan = fullRescan;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    public boolean isFullRescan() {
+        return fullRescan;
+    }
+
+    @Nonnull
+    public List<SlotChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Whether a full rescan is required or any stack that left or entered a changed slot passes the filter
+     */
+    public boolean affects(@Nonnull Predicate<ItemStack> filter) {
+        if (fullRescan) return true;
+
+        for (SlotChange change : changes) {
+            if (change.oldStack != null && filter.test(change.oldStack)) return true;
+            if (change.newStack != null && filter.test(change.newStack)) return true;
+        }
+
+        return false;
+    }
+
+    public static final class SlotChange {
+
+        /**
+         * Index into the player's main inventory
+         */
+        public final int slot;
+        @Nullable
+        public final ItemStack oldStack;
+        @Nullable
+        public final ItemStack newStack;
+
+        public SlotChange(int slot, @Nullable ItemStack oldStack, @Nullable ItemStack newStack) {
+            this.slot = slot;
+            this.oldStack = oldStack;
+            this.newStack = newStack;
+        }
+    }
+}
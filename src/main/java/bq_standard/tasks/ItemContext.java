@@ -0,0 +1,53 @@
+package bq_standard.tasks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import betterquesting.api.utils.BigItemStack;
+import betterquesting.api.utils.ItemComparison;
+
+/**
+ * The item a player used in an event, shared by every task checking it. Its ore IDs are looked up once
+ */
+public final class ItemContext {
+
+    private static final int[] NONE = new int[0];
+
+    @Nullable
+    public final ItemStack stack;
+
+    private int[] oreIDs = null;
+
+    public ItemContext(@Nullable ItemStack stack) {
+        this.stack = stack;
+    }
+
+    @Nonnull
+    public int[] getOreIDs() {
+        if (oreIDs == null) {
+            oreIDs = stack == null || stack.getItem() == null ? NONE : OreDictionary.getOreIDs(stack);
+        }
+        return oreIDs;
+    }
+
+    /**
+     * Whether the item matches the target stack, and its ore name too if the target has one
+     */
+    public boolean matches(@Nonnull BigItemStack target, boolean nbtCheck, boolean partialNBT) {
+        if (target.hasOreDict() && !matchesOre(target, nbtCheck, partialNBT)) return false;
+        return ItemComparison.StackMatch(target.getBaseStack(), stack, nbtCheck, partialNBT);
+    }
+
+    // Same as OreDictionaryMatch, which compares the item's tags against the target's
+    private boolean matchesOre(BigItemStack target, boolean nbtCheck, boolean partialNBT) {
+        if (stack == null || !ArrayUtils.contains(getOreIDs(), OreDictionary.getOreID(target.getOreDict()))) {
+            return false;
+        }
+        return !nbtCheck || ItemComparison.CompareNBTTag(stack.getTagCompound(), target.GetTagCompound(), partialNBT);
+    }
+}
@@ -8,18 +8,14 @@ import java.util.UUID;
 import net.minecraft.block.Block;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.init.Blocks;
-import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTBase.NBTPrimitive;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.util.Constants;
-import net.minecraftforge.oredict.OreDictionary;
 
 import betterquesting.api.questing.IQuest;
-import betterquesting.api.utils.ItemComparison;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api2.client.gui.misc.IGuiRect;
 import betterquesting.api2.client.gui.panels.IGuiPanel;
@@ -132,7 +128,8 @@ public class TaskBlockBreak extends TaskProgressableBase<int[]> {
 
     @Override
     public void writeUserProgressToNBT(NBTTagCompound nbt, int[] progress) {
-        nbt.setIntArray("data", progress);
+        // Copied, the tag may be written out on another thread while the live array keeps changing
+        nbt.setIntArray("data", progress.clone());
     }
     // endregion Progress
 
@@ -152,42 +149,22 @@ public class TaskBlockBreak extends TaskProgressableBase<int[]> {
         pInfo.markDirtyParty(quest.getKey());
     }
 
-    public void onBlockBreak(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, Block block, int meta, int x, int y,
-        int z) {
-        TileEntity tile = block.hasTileEntity(meta) ? pInfo.PLAYER.worldObj.getTileEntity(x, y, z) : null;
-        NBTTagCompound tags = null;
-        if (tile != null) {
-            tags = new NBTTagCompound();
-            tile.writeToNBT(tags);
-        }
-
-        final List<Tuple2<UUID, int[]>> progress = getBulkProgress(pInfo.ALL_UUIDS);
-        boolean changed = false;
-
+    public void onBlockBreak(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, BlockContext broken) {
         for (int i = 0; i < blockTypes.size(); i++) {
             NbtBlockType targetBlock = blockTypes.get(i);
+            if (!targetBlock.matches(broken)) continue;
 
-            int tmpMeta = (targetBlock.m < 0 || targetBlock.m == OreDictionary.WILDCARD_VALUE)
-                ? OreDictionary.WILDCARD_VALUE
-                : meta;
-            boolean oreMatch = targetBlock.oreDict.length() > 0 && OreDictionary.getOres(targetBlock.oreDict)
-                .contains(new ItemStack(block, 1, tmpMeta));
             final int index = i;
+            final List<Tuple2<UUID, int[]>> progress = getBulkProgress(pInfo.ALL_UUIDS);
+            progress.forEach((entry) -> {
+                if (entry.getSecond()[index] >= targetBlock.n) return;
+                entry.getSecond()[index]++;
+            });
 
-            if ((oreMatch || (block == targetBlock.b && (targetBlock.m < 0 || meta == targetBlock.m)))
-                && ItemComparison.CompareNBTTag(targetBlock.tags, tags, true)) {
-                progress.forEach((entry) -> {
-                    if (entry.getSecond()[index] >= targetBlock.n) return;
-                    entry.getSecond()[index]++;
-                });
-                changed = true;
-                break; // NOTE: We're only tracking one break at a time so doing all the progress setting above is fine
-            }
-        }
-
-        if (changed) {
+            // NOTE: We're only tracking one break at a time so doing all the progress setting above is fine
             setBulkProgress(progress);
             detect(pInfo, quest);
+            return;
         }
     }
 
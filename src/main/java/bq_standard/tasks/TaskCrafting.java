@@ -24,11 +24,11 @@ import org.apache.logging.log4j.Level;
 import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.questing.IQuest;
 import betterquesting.api.utils.BigItemStack;
-import betterquesting.api.utils.ItemComparison;
 import betterquesting.api.utils.JsonHelper;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api2.client.gui.misc.IGuiRect;
 import betterquesting.api2.client.gui.panels.IGuiPanel;
+import betterquesting.api2.utils.ItemRequirementMatcher;
 import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.api2.utils.Tuple2;
 import bq_standard.client.gui.tasks.PanelTaskCrafting;
@@ -49,6 +49,8 @@ public class TaskCrafting extends TaskProgressableBase<int[]> implements ITaskIt
     public boolean allowCraft = true;
     public boolean allowCraftedFromStatistics = false;
 
+    private ItemRequirementMatcher matcher = null;
+
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
         partialMatch = nbt.getBoolean("partialMatch");
@@ -64,6 +66,7 @@ public class TaskCrafting extends TaskProgressableBase<int[]> implements ITaskIt
         for (int i = 0; i < iList.tagCount(); i++) {
             requiredItems.add(JsonHelper.JsonToItemStack(iList.getCompoundTagAt(i)));
         }
+        matcher = null;
     }
 
     @Override
@@ -140,7 +143,8 @@ public class TaskCrafting extends TaskProgressableBase<int[]> implements ITaskIt
 
     @Override
     public void writeUserProgressToNBT(NBTTagCompound nbt, int[] progress) {
-        nbt.setIntArray("data", progress);
+        // Copied, the tag may be written out on another thread while the live array keeps changing
+        nbt.setIntArray("data", progress.clone());
     }
     // endregion Progress
 
@@ -216,33 +220,26 @@ public class TaskCrafting extends TaskProgressableBase<int[]> implements ITaskIt
         boolean changed = false;
         int realStackSizeCache = realStackSizeSupplier == null ? Math.max(0, stack.stackSize) : -1;
 
-        for (int i = 0; i < requiredItems.size(); i++) {
+        matcher = ItemRequirementMatcher.update(matcher, requiredItems);
+
+        for (int i : matcher.match(stack, !ignoreNBT, partialMatch)) {
             final BigItemStack rStack = requiredItems.get(i);
             final int index = i;
 
-            if (ItemComparison.StackMatch(rStack.getBaseStack(), stack, !ignoreNBT, partialMatch)
-                || ItemComparison.OreDictionaryMatch(
-                    rStack.getOreIngredient(),
-                    rStack.GetTagCompound(),
-                    stack,
-                    !ignoreNBT,
-                    partialMatch)) {
-                int realStackSize;
-                if (realStackSizeCache < 0) {
-                    realStackSize = realStackSizeSupplier.getAsInt();
-                    if (realStackSize <= 0)
-                        // bruh
-                        return;
-                    realStackSizeCache = realStackSize;
-                } else {
-                    realStackSize = realStackSizeCache;
-                }
-                progress.stream()
-                    .filter(e -> e.getSecond()[index] < rStack.stackSize)
-                    .forEach(
-                        e -> e.getSecond()[index] = Math.min(e.getSecond()[index] + realStackSize, rStack.stackSize));
-                changed = true;
+            int realStackSize;
+            if (realStackSizeCache < 0) {
+                realStackSize = realStackSizeSupplier.getAsInt();
+                if (realStackSize <= 0)
+                    // bruh
+                    return;
+                realStackSizeCache = realStackSize;
+            } else {
+                realStackSize = realStackSizeCache;
             }
+            progress.stream()
+                .filter(e -> e.getSecond()[index] < rStack.stackSize)
+                .forEach(e -> e.getSecond()[index] = Math.min(e.getSecond()[index] + realStackSize, rStack.stackSize));
+            changed = true;
         }
 
         if (changed) {
@@ -3,6 +3,7 @@ package bq_standard.tasks;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -21,6 +22,7 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidContainerRegistry;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.IFluidContainerItem;
@@ -52,6 +54,8 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
     public boolean groupDetect = false;
     public boolean autoConsume = false;
 
+    private FluidIndex fluidIndex = null;
+
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
         // partialMatch = json.getBoolean("partialMatch");
@@ -65,6 +69,7 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
         for (int i = 0; i < fList.tagCount(); i++) {
             requiredFluids.add(JsonHelper.JsonToFluidStack(fList.getCompoundTagAt(i)));
         }
+        fluidIndex = null;
     }
 
     @Override
@@ -137,7 +142,8 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
 
     @Override
     public void writeUserProgressToNBT(NBTTagCompound nbt, int[] progress) {
-        nbt.setIntArray("data", progress);
+        // Copied, the tag may be written out on another thread while the live array keeps changing
+        nbt.setIntArray("data", progress.clone());
     }
     // endregion Progress
 
@@ -167,6 +173,8 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
 
         if (detector.updated) setBulkProgress(detector.progress);
         checkAndComplete(pInfo, quest, detector.updated);
+        // Kept in the player's quest cache so it goes away with them
+        pInfo.setCheckedRevision(this, getProgressRevision(pInfo.UUID));
     }
 
     private void checkAndComplete(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, boolean resync) {
@@ -287,7 +295,7 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
             return input;
         }
 
-        ParticipantInfo pInfo = new ParticipantInfo(QuestingAPI.getPlayer(owner));
+        ParticipantInfo pInfo = ParticipantInfo.of(QuestingAPI.getPlayer(owner));
         Detector detector = new Detector(
             this,
             QBConfig.fullySyncQuests ? pInfo.ALL_UUIDS : Collections.singletonList(pInfo.UUID));
@@ -346,7 +354,7 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
     public ItemStack submitItem(UUID owner, Map.Entry<UUID, IQuest> quest, ItemStack input) {
         if (owner == null || input == null || input.stackSize != 1 || !consume || isComplete(owner)) return input;
 
-        ParticipantInfo pInfo = new ParticipantInfo(QuestingAPI.getPlayer(owner));
+        ParticipantInfo pInfo = ParticipantInfo.of(QuestingAPI.getPlayer(owner));
         Detector detector = new Detector(
             this,
             QBConfig.fullySyncQuests ? pInfo.ALL_UUIDS : Collections.singletonList(pInfo.UUID));
@@ -414,6 +422,73 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
         }
     }
 
+    @Override
+    public void onInventoryChange(@Nonnull Map.Entry<UUID, IQuest> quest, @Nonnull ParticipantInfo pInfo,
+        @Nonnull InventoryDelta delta) {
+        // Unless progress moved since the last check, only fluid containers can change the outcome
+        Long checked = pInfo.getCheckedRevision(this);
+        if (checked != null && checked == getProgressRevision(pInfo.UUID)
+            && !delta.affects(
+                stack -> stack.getItem() instanceof IFluidContainerItem
+                    || FluidContainerRegistry.isFilledContainer(stack))) {
+            return;
+        }
+        onInventoryChange(quest, pInfo);
+    }
+
+    FluidIndex getFluidIndex() {
+        if (fluidIndex == null || !fluidIndex.isCurrent(this)) fluidIndex = new FluidIndex(this);
+        return fluidIndex;
+    }
+
+    /**
+     * Requirements grouped by fluid, with the stacks to compare against already stripped of NBT when it is ignored
+     */
+    static class FluidIndex {
+
+        private static final int[] NONE = new int[0];
+
+        private final FluidStack[] reqs;
+        private final boolean ignoreNbt;
+        public final FluidStack[] probes;
+        public final int maxAmount;
+        private final Map<Fluid, int[]> byFluid = new HashMap<>();
+
+        FluidIndex(TaskFluid task) {
+            reqs = task.requiredFluids.toArray(new FluidStack[0]);
+            ignoreNbt = task.ignoreNbt;
+            probes = new FluidStack[reqs.length];
+
+            int max = 1;
+            for (int i = 0; i < reqs.length; i++) {
+                probes[i] = reqs[i].copy();
+                if (ignoreNbt) probes[i].tag = null;
+                max = Math.max(max, reqs[i].amount);
+
+                int[] group = byFluid.get(reqs[i].getFluid());
+                group = group == null ? new int[1] : Arrays.copyOf(group, group.length + 1);
+                group[group.length - 1] = i;
+                byFluid.put(reqs[i].getFluid(), group);
+            }
+            maxAmount = max;
+        }
+
+        boolean isCurrent(TaskFluid task) {
+            if (task.ignoreNbt != ignoreNbt || task.requiredFluids.size() != reqs.length) return false;
+
+            for (int i = 0; i < reqs.length; i++) {
+                FluidStack req = task.requiredFluids.get(i);
+                if (req != reqs[i] || req.getFluid() != probes[i].getFluid() || req.amount > maxAmount) return false;
+            }
+            return true;
+        }
+
+        int[] candidates(FluidStack fluid) {
+            int[] group = byFluid.get(fluid.getFluid());
+            return group == null ? NONE : group;
+        }
+    }
+
     static class Detector {
 
         public boolean updated = false;
@@ -456,14 +531,14 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
             if (!(stack.getItem() instanceof IFluidContainerItem || FluidContainerRegistry.isFilledContainer(stack)))
                 return;
 
-            for (int i = 0; i < task.requiredFluids.size(); i++) {
-                final FluidStack rStack = task.requiredFluids.get(i);
-                FluidStack drainOG = rStack.copy();
-                if (task.ignoreNbt) drainOG.tag = null;
+            // Sample the container once, only requirements for the same fluid need checking
+            FluidIndex index = task.getFluidIndex();
+            FluidStack sample = fluidGetter.apply(false, index.maxAmount);
+            if (sample == null) return;
 
-                // Pre-check
-                FluidStack sample = fluidGetter.apply(false, drainOG.amount);
-                if (!drainOG.isFluidEqual(sample)) continue;
+            for (int i : index.candidates(sample)) {
+                final FluidStack rStack = task.requiredFluids.get(i);
+                if (!index.probes[i].isFluidEqual(sample)) continue;
 
                 for (Tuple2<UUID, int[]> value : progress) {
                     if (value.getSecond()[i] >= rStack.amount) continue;
@@ -490,13 +565,10 @@ public class TaskFluid extends TaskProgressableBase<int[]> implements ITaskInven
         public void run(FluidStack fluid, IntFunction<FluidStack> consumer, UUID runner) {
             if (fluid == null || fluid.amount <= 0) return;
 
-            for (int i = 0; i < task.requiredFluids.size(); i++) {
+            FluidIndex index = task.getFluidIndex();
+            for (int i : index.candidates(fluid)) {
                 final FluidStack rStack = task.requiredFluids.get(i);
-                FluidStack drainOG = rStack.copy();
-                if (task.ignoreNbt) drainOG.tag = null;
-
-                // Pre-check
-                if (!drainOG.isFluidEqual(fluid)) continue;
+                if (!index.probes[i].isFluidEqual(fluid)) continue;
 
                 for (Tuple2<UUID, int[]> value : progress) {
                     if (value.getSecond()[i] >= rStack.amount) continue;
@@ -6,17 +6,14 @@ import java.util.Map;
 import java.util.UUID;
 
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.entity.Entity;
-import net.minecraft.entity.EntityList;
-import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.DamageSource;
 import net.minecraft.util.ResourceLocation;
 
 import betterquesting.api.questing.IQuest;
-import betterquesting.api.utils.ItemComparison;
 import betterquesting.api2.client.gui.misc.IGuiRect;
 import betterquesting.api2.client.gui.panels.IGuiPanel;
+import betterquesting.api2.utils.NBTPredicate;
 import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.api2.utils.Tuple2;
 import bq_standard.client.gui.editors.tasks.GuiEditTaskHunt;
@@ -41,6 +38,8 @@ public class TaskHunt extends TaskProgressableBase<Integer> {
      */
     public NBTTagCompound targetTags = new NBTTagCompound();
 
+    private NBTPredicate targetPredicate = null;
+
     @Override
     public void readFromNBT(NBTTagCompound nbt) {
         idName = nbt.getString("target");
@@ -115,27 +114,19 @@ public class TaskHunt extends TaskProgressableBase<Integer> {
         pInfo.markDirtyParty(quest.getKey());
     }
 
-    @SuppressWarnings({ "unchecked", "DuplicatedCode" })
-    public void onKilledByPlayer(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, EntityLivingBase entity,
+    @SuppressWarnings("DuplicatedCode")
+    public void onKilledByPlayer(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, EntityContext entity,
         DamageSource source) {
         if (damageType.length() > 0 && (source == null || !damageType.equalsIgnoreCase(source.damageType))) return;
 
-        Class<? extends Entity> subject = entity.getClass();
-        Class<? extends Entity> target = (Class<? extends Entity>) EntityList.stringToClassMapping.get(idName);
-        String subjectID = EntityList.getEntityString(entity);
+        // Not the intended target or sub-type, or either isn't registered
+        if (!entity.isTarget(idName, subtypes)) return;
 
-        if (subjectID == null || target == null) {
-            return; // Missing necessary data
-        } else if (subtypes && !target.isAssignableFrom(subject)) {
-            return; // This is not the intended target or sub-type
-        } else if (!subtypes && !subjectID.equals(idName)) {
-            return; // This isn't the exact target required
+        if (!ignoreNBT) {
+            targetPredicate = NBTPredicate.update(targetPredicate, targetTags, true);
+            if (!targetPredicate.test(entity.getTags())) return;
         }
 
-        NBTTagCompound subjectTags = new NBTTagCompound();
-        entity.writeToNBTOptional(subjectTags);
-        if (!ignoreNBT && !ItemComparison.CompareNBTTag(targetTags, subjectTags, true)) return;
-
         final List<Tuple2<UUID, Integer>> progress = getBulkProgress(pInfo.ALL_UUIDS);
 
         progress.forEach((value) -> {
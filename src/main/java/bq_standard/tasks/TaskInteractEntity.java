@@ -8,17 +8,14 @@ import java.util.UUID;
 import javax.annotation.Nullable;
 
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.entity.Entity;
-import net.minecraft.entity.EntityList;
-import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ResourceLocation;
 
 import betterquesting.api.questing.IQuest;
 import betterquesting.api.utils.BigItemStack;
-import betterquesting.api.utils.ItemComparison;
 import betterquesting.api2.client.gui.misc.IGuiRect;
 import betterquesting.api2.client.gui.panels.IGuiPanel;
+import betterquesting.api2.utils.NBTPredicate;
 import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.api2.utils.Tuple2;
 import bq_standard.client.gui.tasks.PanelTaskInteractEntity;
@@ -42,6 +39,8 @@ public class TaskInteractEntity extends TaskProgressableBase<Integer> {
     public boolean entitySubtypes = true;
     public boolean ignoreEntityNBT = true;
 
+    private NBTPredicate entityPredicate = null;
+
     public boolean onInteract = true;
     public boolean onHit = false;
     public int required = 1;
@@ -132,38 +131,19 @@ public class TaskInteractEntity extends TaskProgressableBase<Integer> {
         pInfo.markDirtyParty(quest.getKey());
     }
 
-    public void onInteract(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, ItemStack item, Entity entity,
-        boolean isHit) {
+    public void onInteract(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, ItemContext item,
+        EntityContext entity, boolean isHit) {
         if ((!onHit && isHit) || (!onInteract && !isHit)) return;
 
-        // noinspection unchecked
-        Class<? extends Entity> targetClass = (Class<? extends Entity>) EntityList.stringToClassMapping.get(entityID);
-        if (targetClass == null) return; // No idea what we're looking for
-
-        Class<? extends Entity> subjectClass = entity.getClass();
-        String subjectRes = EntityList.getEntityString(entity);
-        if (subjectRes == null) return; // This isn't a registered entity!
-
-        if (entitySubtypes ? !targetClass.isAssignableFrom(subjectClass) : !subjectRes.equals(entityID)) return;
+        // Not the intended target or sub-type, or either isn't registered
+        if (!entity.isTarget(entityID, entitySubtypes)) return;
 
         if (!ignoreEntityNBT) {
-            NBTTagCompound subjectTags = new NBTTagCompound();
-            entity.writeToNBTOptional(subjectTags);
-            if (!ItemComparison.CompareNBTTag(entityTags, subjectTags, true)) return;
+            entityPredicate = NBTPredicate.update(entityPredicate, entityTags, true);
+            if (!entityPredicate.test(entity.getTags())) return;
         }
 
-        if (targetItem != null) {
-            if (targetItem.hasOreDict() && !ItemComparison.OreDictionaryMatch(
-                targetItem.getOreIngredient(),
-                targetItem.GetTagCompound(),
-                item,
-                !ignoreItemNBT,
-                partialItemMatch)) {
-                return;
-            } else if (!ItemComparison.StackMatch(targetItem.getBaseStack(), item, !ignoreItemNBT, partialItemMatch)) {
-                return;
-            }
-        }
+        if (targetItem != null && !item.matches(targetItem, !ignoreItemNBT, partialItemMatch)) return;
 
         final List<Tuple2<UUID, Integer>> progress = getBulkProgress(pInfo.ALL_UUIDS);
 
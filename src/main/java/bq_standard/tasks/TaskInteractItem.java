@@ -7,18 +7,13 @@ import java.util.UUID;
 
 import javax.annotation.Nullable;
 
-import net.minecraft.block.Block;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.init.Blocks;
-import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.ResourceLocation;
-import net.minecraftforge.oredict.OreDictionary;
 
 import betterquesting.api.questing.IQuest;
 import betterquesting.api.utils.BigItemStack;
-import betterquesting.api.utils.ItemComparison;
 import betterquesting.api2.client.gui.misc.IGuiRect;
 import betterquesting.api2.client.gui.panels.IGuiPanel;
 import betterquesting.api2.utils.ParticipantInfo;
@@ -121,43 +116,16 @@ public class TaskInteractItem extends TaskProgressableBase<Integer> {
     }
 
     @SuppressWarnings("DuplicatedCode")
-    public void onInteract(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, ItemStack item, Block block, int meta,
-        int x, int y, int z, boolean isHit) {
+    public void onInteract(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, ItemContext item, BlockContext block,
+        boolean isHit) {
         if ((!onHit && isHit) || (!onInteract && !isHit)) return;
 
         if (targetBlock.b != Blocks.air && targetBlock.b != null) {
-            if (block == Blocks.air || block == null) return;
-            TileEntity tile = block.hasTileEntity(meta) ? pInfo.PLAYER.worldObj.getTileEntity(x, y, z) : null;
-            NBTTagCompound tags = null;
-            if (tile != null) {
-                tags = new NBTTagCompound();
-                tile.writeToNBT(tags);
-            }
-
-            int tmpMeta = (targetBlock.m < 0 || targetBlock.m == OreDictionary.WILDCARD_VALUE)
-                ? OreDictionary.WILDCARD_VALUE
-                : meta;
-            boolean oreMatch = targetBlock.oreDict.length() > 0 && OreDictionary.getOres(targetBlock.oreDict)
-                .contains(new ItemStack(block, 1, tmpMeta));
-
-            if ((!oreMatch && (block != targetBlock.b || (targetBlock.m >= 0 && meta != targetBlock.m)))
-                || !ItemComparison.CompareNBTTag(targetBlock.tags, tags, true)) {
-                return;
-            }
+            if (block.block == Blocks.air || block.block == null) return;
+            if (!targetBlock.matches(block)) return;
         }
 
-        if (targetItem != null) {
-            if (targetItem.hasOreDict() && !ItemComparison.OreDictionaryMatch(
-                targetItem.getOreIngredient(),
-                targetItem.GetTagCompound(),
-                item,
-                !ignoreNBT,
-                partialMatch)) {
-                return;
-            } else if (!ItemComparison.StackMatch(targetItem.getBaseStack(), item, !ignoreNBT, partialMatch)) {
-                return;
-            }
-        }
+        if (targetItem != null && !item.matches(targetItem, !ignoreNBT, partialMatch)) return;
 
         final List<Tuple2<UUID, Integer>> progress = getBulkProgress(pInfo.ALL_UUIDS);
 
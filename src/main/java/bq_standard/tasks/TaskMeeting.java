@@ -14,9 +14,9 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ResourceLocation;
 
 import betterquesting.api.questing.IQuest;
-import betterquesting.api.utils.ItemComparison;
 import betterquesting.api2.client.gui.misc.IGuiRect;
 import betterquesting.api2.client.gui.panels.IGuiPanel;
+import betterquesting.api2.utils.NBTPredicate;
 import betterquesting.api2.utils.ParticipantInfo;
 import bq_standard.client.gui.editors.tasks.GuiEditTaskMeeting;
 import bq_standard.client.gui.tasks.PanelTaskMeeting;
@@ -39,6 +39,8 @@ public class TaskMeeting extends TaskBase implements ITaskTickable {
      */
     public NBTTagCompound targetTags = new NBTTagCompound();
 
+    private NBTPredicate targetPredicate = null;
+
     @Override
     public void readFromNBT(NBTTagCompound json) {
         idName = json.hasKey("target", 8) ? json.getString("target") : "Villager";
@@ -98,6 +100,7 @@ public class TaskMeeting extends TaskBase implements ITaskTickable {
         if (target == null) return;
 
         int n = 0;
+        if (!ignoreNBT) targetPredicate = NBTPredicate.update(targetPredicate, targetTags, true);
 
         for (Entity entity : list) {
             Class<? extends Entity> subject = entity.getClass();
@@ -114,7 +117,7 @@ public class TaskMeeting extends TaskBase implements ITaskTickable {
             if (!ignoreNBT) {
                 NBTTagCompound subjectTags = new NBTTagCompound();
                 entity.writeToNBTOptional(subjectTags);
-                if (!ItemComparison.CompareNBTTag(targetTags, subjectTags, true)) continue;
+                if (!targetPredicate.test(subjectTags)) continue;
             }
 
             if (++n >= amount) {
@@ -25,11 +25,11 @@ import betterquesting.api.api.QuestingAPI;
 import betterquesting.api.questing.IQuest;
 import betterquesting.api.questing.tasks.IItemTask;
 import betterquesting.api.utils.BigItemStack;
-import betterquesting.api.utils.ItemComparison;
 import betterquesting.api.utils.JsonHelper;
 import betterquesting.api.utils.NBTConverter;
 import betterquesting.api2.client.gui.misc.IGuiRect;
 import betterquesting.api2.client.gui.panels.IGuiPanel;
+import betterquesting.api2.utils.ItemRequirementMatcher;
 import betterquesting.api2.utils.ParticipantInfo;
 import betterquesting.api2.utils.Tuple2;
 import bq_standard.client.gui.tasks.PanelTaskRetrieval;
@@ -50,6 +50,8 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
     public boolean groupDetect = false;
     public boolean autoConsume = false;
 
+    private ItemRequirementMatcher matcher = null;
+
     @Override
     public NBTTagCompound writeToNBT(NBTTagCompound nbt) {
         nbt.setBoolean("partialMatch", partialMatch);
@@ -80,9 +82,18 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
         for (int i = 0; i < iList.tagCount(); i++) {
             requiredItems.add(JsonHelper.JsonToItemStack(iList.getCompoundTagAt(i)));
         }
+        matcher = null;
     }
     // endregion Properties
 
+    /**
+     * Requirements compiled for slot lookups. Recompiled if {@link #requiredItems} was edited since
+     */
+    ItemRequirementMatcher getMatcher() {
+        matcher = ItemRequirementMatcher.update(matcher, requiredItems);
+        return matcher;
+    }
+
     // region Basic
     @Override
     public String getUnlocalisedName() {
@@ -135,7 +146,8 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
 
     @Override
     public void writeUserProgressToNBT(NBTTagCompound nbt, int[] progress) {
-        nbt.setIntArray("data", progress);
+        // Copied, the tag may be written out on another thread while the live array keeps changing
+        nbt.setIntArray("data", progress.clone());
     }
     // endregion Progress
 
@@ -165,6 +177,8 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
 
         if (detector.updated) setBulkProgress(detector.progress);
         checkAndComplete(pInfo, quest, detector.updated, detector.progress);
+        // Kept in the player's quest cache so it goes away with them
+        pInfo.setCheckedRevision(this, getProgressRevision(pInfo.UUID));
     }
 
     private void checkAndComplete(ParticipantInfo pInfo, Map.Entry<UUID, IQuest> quest, boolean resync,
@@ -209,20 +223,8 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
 
         int[] progress = getUsersProgress(owner);
 
-        for (int j = 0; j < requiredItems.size(); j++) {
-            BigItemStack rStack = requiredItems.get(j);
-
-            if (progress[j] >= rStack.stackSize) continue;
-
-            if (ItemComparison.StackMatch(rStack.getBaseStack(), stack, !ignoreNBT, partialMatch)
-                || ItemComparison.OreDictionaryMatch(
-                    rStack.getOreIngredient(),
-                    rStack.GetTagCompound(),
-                    stack,
-                    !ignoreNBT,
-                    partialMatch)) {
-                return true;
-            }
+        for (int j : getMatcher().match(stack, !ignoreNBT, partialMatch)) {
+            if (progress[j] < requiredItems.get(j).stackSize) return true;
         }
 
         return false;
@@ -232,7 +234,7 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
     public ItemStack submitItem(UUID owner, Map.Entry<UUID, IQuest> quest, ItemStack input) {
         if (owner == null || input == null || !consume || isComplete(owner)) return input;
 
-        ParticipantInfo pInfo = new ParticipantInfo(QuestingAPI.getPlayer(owner));
+        ParticipantInfo pInfo = ParticipantInfo.of(QuestingAPI.getPlayer(owner));
         Detector detector = new Detector(
             this,
             QBConfig.fullySyncQuests ? pInfo.ALL_UUIDS : Collections.singletonList(pInfo.UUID));
@@ -273,6 +275,18 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
         }
     }
 
+    @Override
+    public void onInventoryChange(@Nonnull Map.Entry<UUID, IQuest> quest, @Nonnull ParticipantInfo pInfo,
+        @Nonnull InventoryDelta delta) {
+        // Unless progress moved since the last check, only stacks matching a requirement can change the outcome
+        Long checked = pInfo.getCheckedRevision(this);
+        if (checked != null && checked == getProgressRevision(pInfo.UUID)
+            && !delta.affects(stack -> getMatcher().match(stack, !ignoreNBT, partialMatch).length > 0)) {
+            return;
+        }
+        onInventoryChange(quest, pInfo);
+    }
+
     @SuppressWarnings("DuplicatedCode")
     @Override
     public List<String> getTextsForSearch() {
@@ -335,19 +349,10 @@ public class TaskRetrieval extends TaskProgressableBase<int[]> implements ITaskI
             // Allows the stack detection to split across multiple requirements. Counts may vary per person
             Arrays.fill(remCounts, stack.stackSize);
 
-            for (int i = 0; i < task.requiredItems.size(); i++) {
+            for (int i : task.getMatcher()
+                .match(stack, !task.ignoreNBT, task.partialMatch)) {
                 BigItemStack rStack = task.requiredItems.get(i);
 
-                if (!ItemComparison.StackMatch(rStack.getBaseStack(), stack, !task.ignoreNBT, task.partialMatch)
-                    && !ItemComparison.OreDictionaryMatch(
-                        rStack.getOreIngredient(),
-                        rStack.GetTagCompound(),
-                        stack,
-                        !task.ignoreNBT,
-                        task.partialMatch)) {
-                    continue;
-                }
-
                 for (int n = 0; n < progress.size(); n++) {
                     Tuple2<UUID, int[]> value = progress.get(n);
                     if (value.getSecond()[i] >= rStack.stackSize) continue;
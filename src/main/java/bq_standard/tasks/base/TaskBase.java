@@ -1,10 +1,10 @@
 package bq_standard.tasks.base;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
@@ -16,12 +16,37 @@ import net.minecraftforge.common.util.Constants;
 import org.apache.logging.log4j.Level;
 
 import betterquesting.api.questing.tasks.ITask;
+import betterquesting.api2.storage.ProgressRevisions;
 import betterquesting.api2.utils.DirtyPlayerMarker;
 import bq_standard.core.BQ_Standard;
 
 public abstract class TaskBase implements ITask {
 
     protected final Set<UUID> completeUsers = new TreeSet<>();
+    protected final ProgressRevisions revisions = new ProgressRevisions();
+
+    @Nullable
+    private Consumer<UUID> progressListener = null;
+
+    @Override
+    public boolean setProgressListener(@Nullable Consumer<UUID> listener) {
+        this.progressListener = listener;
+        return true;
+    }
+
+    protected void notifyProgress(UUID uuid) {
+        if (progressListener != null) progressListener.accept(uuid);
+    }
+
+    @Override
+    public boolean hasProgress(UUID uuid) {
+        return completeUsers.contains(uuid);
+    }
+
+    @Override
+    public long getProgressRevision(UUID uuid) {
+        return revisions.get(uuid);
+    }
 
     @Override
     public boolean isComplete(UUID uuid) {
@@ -32,36 +57,44 @@ public abstract class TaskBase implements ITask {
     public void setComplete(UUID uuid) {
         if (!completeUsers.contains(uuid)) {
             completeUsers.add(uuid);
+            revisions.bump(uuid);
+            notifyProgress(uuid);
             DirtyPlayerMarker.markDirty(uuid);
         }
     }
 
     @Override
     public void resetUser(@Nullable UUID uuid) {
-        HashSet<UUID> dirtyPlayers = new HashSet<>();
         if (uuid == null) {
-            dirtyPlayers.addAll(completeUsers);
+            DirtyPlayerMarker.markDirty(completeUsers);
             completeUsers.clear();
-        } else {
-            if (completeUsers.remove(uuid)) {
-                dirtyPlayers.add(uuid);
-            }
+        } else if (completeUsers.remove(uuid)) {
+            DirtyPlayerMarker.markDirty(uuid);
         }
-        DirtyPlayerMarker.markDirty(dirtyPlayers);
+        revisions.bump(uuid);
     }
 
     @Override
     public void readProgressFromNBT(NBTTagCompound json, boolean merge) {
-        if (!merge) completeUsers.clear();
+        if (!merge) {
+            completeUsers.clear();
+        }
 
         NBTTagList completeUsersNBTList = json.getTagList("completeUsers", Constants.NBT.TAG_STRING);
         for (int i = 0; i < completeUsersNBTList.tagCount(); i++) {
             try {
-                completeUsers.add(UUID.fromString(completeUsersNBTList.getStringTagAt(i)));
+                UUID uuid = UUID.fromString(completeUsersNBTList.getStringTagAt(i));
+                completeUsers.add(uuid);
+                notifyProgress(uuid);
             } catch (Exception e) {
                 BQ_Standard.logger.log(Level.ERROR, "Unable to load UUID for task", e);
             }
         }
+
+        // A single bump for everyone rather than a revision entry per loaded user
+        if (!merge || completeUsersNBTList.tagCount() > 0) {
+            revisions.bump(null);
+        }
     }
 
     @Override
@@ -69,11 +102,14 @@ public abstract class TaskBase implements ITask {
         // if users is null, then save all users, otherwise only save the ones in the list
         NBTTagList completeUsersNBTList = new NBTTagList();
 
-        completeUsers.forEach(
-            (uuid) -> {
-                if (users == null || users.contains(uuid))
-                    completeUsersNBTList.appendTag(new NBTTagString(uuid.toString()));
+        if (users == null) {
+            completeUsers.forEach((uuid) -> completeUsersNBTList.appendTag(new NBTTagString(uuid.toString())));
+        } else {
+            // Look up the requested users directly instead of scanning every user that completed this task
+            users.forEach((uuid) -> {
+                if (completeUsers.contains(uuid)) completeUsersNBTList.appendTag(new NBTTagString(uuid.toString()));
             });
+        }
 
         nbt.setTag("completeUsers", completeUsersNBTList);
 
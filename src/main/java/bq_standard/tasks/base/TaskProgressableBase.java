@@ -1,6 +1,5 @@
 package bq_standard.tasks.base;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.TreeMap;
 import java.util.UUID;
@@ -24,30 +23,30 @@ public abstract class TaskProgressableBase<T> extends TaskBase {
     protected final TreeMap<UUID, T> userProgress = new TreeMap<>();
 
     protected void setUserProgress(UUID uuid, T progress) {
-        userProgress.put(uuid, progress);
+        if (userProgress.put(uuid, progress) == null) notifyProgress(uuid);
+        revisions.bump(uuid);
         DirtyPlayerMarker.markDirty(uuid);
     }
 
+    @Override
+    public boolean hasProgress(UUID uuid) {
+        return super.hasProgress(uuid) || userProgress.containsKey(uuid);
+    }
+
     public abstract T getUsersProgress(UUID uuid);
 
     @Override
     public void resetUser(@Nullable UUID uuid) {
-        HashSet<UUID> dirtyPlayers = new HashSet<>();
         if (uuid == null) {
-            dirtyPlayers.addAll(completeUsers);
-            dirtyPlayers.addAll(userProgress.keySet());
+            DirtyPlayerMarker.markDirty(completeUsers);
+            DirtyPlayerMarker.markDirty(userProgress.keySet());
             completeUsers.clear();
             userProgress.clear();
         } else {
-            if (completeUsers.remove(uuid)) {
-                dirtyPlayers.add(uuid);
-            }
-            if (userProgress.containsKey(uuid)) {
-                userProgress.remove(uuid);
-                dirtyPlayers.add(uuid);
-            }
+            boolean removed = completeUsers.remove(uuid);
+            if (userProgress.remove(uuid) != null || removed) DirtyPlayerMarker.markDirty(uuid);
         }
-        DirtyPlayerMarker.markDirty(dirtyPlayers);
+        revisions.bump(uuid);
     }
 
     protected List<Tuple2<UUID, T>> getBulkProgress(@Nonnull List<UUID> uuids) {
@@ -67,7 +66,9 @@ public abstract class TaskProgressableBase<T> extends TaskBase {
     @Override
     public void readProgressFromNBT(NBTTagCompound nbt, boolean merge) {
         super.readProgressFromNBT(nbt, merge);
-        if (!merge) userProgress.clear();
+        if (!merge) {
+            userProgress.clear();
+        }
 
         NBTTagList ProgressNBTList = nbt.getTagList("userProgress", Constants.NBT.TAG_COMPOUND);
         for (int n = 0; n < ProgressNBTList.tagCount(); n++) {
@@ -76,10 +77,15 @@ public abstract class TaskProgressableBase<T> extends TaskBase {
                 UUID uuid = UUID.fromString(progressNBT.getString("uuid"));
                 T progress = readUserProgressFromNBT(progressNBT);
                 userProgress.put(uuid, progress);
+                notifyProgress(uuid);
             } catch (Exception e) {
                 BQ_Standard.logger.log(Level.ERROR, "Unable to load user progress for task", e);
             }
         }
+
+        if (!merge || ProgressNBTList.tagCount() > 0) {
+            revisions.bump(null);
+        }
     }
 
     @Override
@@ -87,16 +93,23 @@ public abstract class TaskProgressableBase<T> extends TaskBase {
         super.writeProgressToNBT(nbt, users);
         NBTTagList ProgressNBTList = new NBTTagList();
 
-        userProgress.forEach((uuid, progress) -> {
-            if (users == null || users.contains(uuid)) {
-                NBTTagCompound progressNBT = new NBTTagCompound();
-                progressNBT.setString("uuid", uuid.toString());
-                writeUserProgressToNBT(progressNBT, progress);
-                ProgressNBTList.appendTag(progressNBT);
-            }
-        });
+        if (users == null) {
+            userProgress.forEach((uuid, progress) -> writeUserEntry(ProgressNBTList, uuid, progress));
+        } else {
+            users.forEach((uuid) -> {
+                T progress = userProgress.get(uuid);
+                if (progress != null) writeUserEntry(ProgressNBTList, uuid, progress);
+            });
+        }
 
         nbt.setTag("userProgress", ProgressNBTList);
         return nbt;
     }
+
+    private void writeUserEntry(NBTTagList list, UUID uuid, T progress) {
+        NBTTagCompound progressNBT = new NBTTagCompound();
+        progressNBT.setString("uuid", uuid.toString());
+        writeUserProgressToNBT(progressNBT, progress);
+        list.appendTag(progressNBT);
+    }
 }
@@ -0,0 +1,236 @@
+package betterquesting.api2.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.HashBiMap;
+
+/**
+ * Rough comparison of {@link UuidDatabase} snapshot reads with a database that takes its lock for every read, under
+ * the load the quest sync path puts on it: a few encode threads reading quests while the server thread edits some.
+ * Not a unit test, run the main method with the test classpath. Arguments: [entries] [readers] [seconds]
+ */
+public class UuidDatabaseBenchmark {
+
+    // Quests looked up by one partial sync
+    private static final int SUBSET = 20;
+    // One in this many reads is a full sync walking every entry
+    private static final int FULL_SYNC_EVERY = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        System.out.printf("%d entries, %d readers, %d s per run%n", entries, readers, seconds);
+        System.out.printf(
+            "%-9s %-14s %14s %14s %14s%n",
+            "database",
+            "writes",
+            "reads/s",
+            "write avg us",
+            "write max us");
+
+        for (long writePause : new long[] { -1L, 50L, 1L }) {
+            String writes = writePause < 0 ? "none" : "every " + writePause + " ms";
+            run("snapshot", new SnapshotTarget(entries), readers, seconds, writePause, writes);
+            run("locked", new LockedTarget(entries), readers, seconds, writePause, writes);
+        }
+    }
+
+    private static void run(String name, Target target, int readers, int seconds, long writePause, String writes)
+        throws InterruptedException {
+        // Warm up untimed first
+        measure(target, readers, 1, writePause);
+        Result result = measure(target, readers, seconds, writePause);
+        System.out.printf(
+            "%-9s %-14s %14.0f %14.2f %14.2f%n",
+            name,
+            writes,
+            result.reads / (double) seconds,
+            result.writes == 0 ? 0D : result.writeNanos / (result.writes * 1000D),
+            result.maxWriteNanos / 1000D);
+    }
+
+    private static Result measure(Target target, int readers, int seconds, long writePause)
+        throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < readers; i++) {
+            final long seed = i;
+            threads.add(new Thread(() -> {
+                Random rand = new Random(seed);
+                List<UUID> subset = new ArrayList<>(SUBSET);
+                long done = 0;
+                long sink = 0;
+
+                while (running.get()) {
+                    if (done % FULL_SYNC_EVERY == 0) {
+                        sink += target.walkAll();
+                    } else {
+                        subset.clear();
+                        for (int j = 0; j < SUBSET; j++) subset.add(target.randomKey(rand));
+                        sink += target.readSubset(subset);
+                    }
+                    done++;
+                }
+
+                reads.addAndGet(done);
+                if (sink == 42) System.out.print("");
+            }));
+        }
+
+        Result result = new Result();
+        Thread writer = new Thread(() -> {
+            Random rand = new Random(-1L);
+            while (running.get()) {
+                if (writePause < 0) {
+                    sleep(10L);
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                target.edit(rand);
+                long took = System.nanoTime() - start;
+                result.writes++;
+                result.writeNanos += took;
+                result.maxWriteNanos = Math.max(result.maxWriteNanos, took);
+                sleep(writePause);
+            }
+        });
+
+        threads.forEach(Thread::start);
+        writer.start();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) thread.join();
+        writer.join();
+
+        result.reads = reads.get();
+        return result;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {}
+    }
+
+    private static final class Result {
+
+        private long reads;
+        // Only touched by the writer until it is joined
+        private long writes;
+        private long writeNanos;
+        private long maxWriteNanos;
+    }
+
+    private interface Target {
+
+        UUID randomKey(Random rand);
+
+        long readSubset(List<UUID> keys);
+
+        long walkAll();
+
+        void edit(Random rand);
+    }
+
+    private static final class SnapshotTarget implements Target {
+
+        private final UuidDatabase<Object> db = new UuidDatabase<>();
+        private final UUID[] keys;
+
+        private SnapshotTarget(int entries) {
+            keys = new UUID[entries];
+            for (int i = 0; i < entries; i++) {
+                keys[i] = db.generateKey();
+                db.put(keys[i], new Object());
+            }
+        }
+
+        @Override
+        public UUID randomKey(Random rand) {
+            return keys[rand.nextInt(keys.length)];
+        }
+
+        @Override
+        public long readSubset(List<UUID> subset) {
+            return db.filterKeys(subset)
+                .size();
+        }
+
+        @Override
+        public long walkAll() {
+            long count = 0;
+            for (Map.Entry<UUID, Object> entry : db.entrySet()) {
+                if (entry.getValue() != null) count++;
+            }
+            return count;
+        }
+
+        @Override
+        public void edit(Random rand) {
+            db.put(randomKey(rand), new Object());
+        }
+    }
+
+    // Every read holds the lock for as long as it takes, which is what the sync threads did before snapshots
+    private static final class LockedTarget implements Target {
+
+        private final HashBiMap<UUID, Object> db = HashBiMap.create();
+        private final UUID[] keys;
+
+        private LockedTarget(int entries) {
+            keys = new UUID[entries];
+            for (int i = 0; i < entries; i++) {
+                keys[i] = UUID.randomUUID();
+                db.put(keys[i], new Object());
+            }
+        }
+
+        @Override
+        public UUID randomKey(Random rand) {
+            return keys[rand.nextInt(keys.length)];
+        }
+
+        @Override
+        public long readSubset(List<UUID> subset) {
+            // Same lookup as UuidDatabase.filterKeys, only under the lock
+            synchronized (db) {
+                return subset.stream()
+                    .distinct()
+                    .filter(db::containsKey)
+                    .collect(Collectors.toMap(Function.identity(), db::get))
+                    .size();
+            }
+        }
+
+        @Override
+        public long walkAll() {
+            synchronized (db) {
+                long count = 0;
+                for (Map.Entry<UUID, Object> entry : db.entrySet()) {
+                    if (entry.getValue() != null) count++;
+                }
+                return count;
+            }
+        }
+
+        @Override
+        public void edit(Random rand) {
+            synchronized (db) {
+                db.put(randomKey(rand), new Object());
+            }
+        }
+    }
+}
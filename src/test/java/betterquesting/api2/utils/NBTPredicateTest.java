@@ -0,0 +1,268 @@
+package betterquesting.api2.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByte;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLong;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraftforge.common.util.Constants;
+
+import org.junit.Test;
+
+import betterquesting.api.utils.ItemComparison;
+
+public class NBTPredicateTest {
+
+    private static final int RUNS = 200000;
+
+    @Test
+    public void matchesOldComparisonOnRandomTags() {
+        Random rand = new Random(1L);
+        int matched = 0;
+
+        for (int i = 0; i < RUNS; i++) {
+            NBTBase required = rand.nextInt(20) == 0 ? null : randomTag(rand, 3);
+            // Unrelated samples almost never match, so most are derived from the required tag
+            NBTBase sample;
+            if (required == null || rand.nextInt(4) == 0) {
+                sample = rand.nextInt(20) == 0 ? null : randomTag(rand, 3);
+            } else {
+                sample = mutate(rand, required);
+            }
+
+            boolean partial = rand.nextBoolean();
+            if (check(required, sample, partial)) matched++;
+        }
+
+        // Both outcomes have to come up often enough for the comparison to mean anything
+        assertTrue("too few matches: " + matched, matched > RUNS / 10);
+        assertTrue("too few mismatches: " + (RUNS - matched), RUNS - matched > RUNS / 10);
+    }
+
+    @Test
+    public void partialAllowsExtraKeys() {
+        NBTTagCompound required = new NBTTagCompound();
+        required.setInteger("a", 1);
+
+        NBTTagCompound sample = (NBTTagCompound) required.copy();
+        sample.setString("b", "extra");
+
+        // Extra keys are allowed either way, only lists and arrays care about partial
+        assertTrue(check(required, sample, true));
+        assertTrue(check(required, sample, false));
+
+        sample.setInteger("a", 2);
+        assertFalse(check(required, sample, true));
+    }
+
+    @Test
+    public void sizeOnlyMattersWhenNotPartial() {
+        NBTTagCompound required = new NBTTagCompound();
+        required.setIntArray("ints", new int[] { 1, 2 });
+        required.setByteArray("bytes", new byte[] { 1, 1 });
+        required.setTag("list", compoundList(1, 2));
+
+        NBTTagCompound larger = new NBTTagCompound();
+        larger.setIntArray("ints", new int[] { 2, 3, 1 });
+        larger.setByteArray("bytes", new byte[] { 0, 1, 1 });
+        larger.setTag("list", compoundList(3, 2, 1));
+
+        assertTrue(check(required, larger, true));
+        assertFalse(check(required, larger, false));
+
+        // A repeated value has to be matched by as many sample values
+        NBTTagCompound missingDuplicate = (NBTTagCompound) larger.copy();
+        missingDuplicate.setByteArray("bytes", new byte[] { 0, 1, 2 });
+        assertFalse(check(required, missingDuplicate, true));
+    }
+
+    @Test
+    public void orderDoesNotMatter() {
+        NBTTagCompound required = new NBTTagCompound();
+        required.setIntArray("ints", new int[] { 3, 1, 2 });
+        required.setTag("list", compoundList(1, 2, 3));
+
+        NBTTagCompound reversed = new NBTTagCompound();
+        reversed.setIntArray("ints", new int[] { 2, 1, 3 });
+        reversed.setTag("list", compoundList(3, 2, 1));
+
+        assertTrue(check(required, reversed, false));
+        assertTrue(check(required, reversed, true));
+    }
+
+    @Test
+    public void numbersCompareByValue() {
+        assertTrue(check(new NBTTagInt(2), new NBTTagByte((byte) 2), false));
+        assertTrue(check(new NBTTagFloat(1.5F), new NBTTagDouble(1.5D), false));
+        assertFalse(check(new NBTTagLong(1L), new NBTTagDouble(1.5D), false));
+        assertFalse(check(new NBTTagDouble(Double.NaN), new NBTTagDouble(Double.NaN), false));
+    }
+
+    @Test
+    public void emptyMatchesOnlyEmpty() {
+        assertTrue(check(null, new NBTTagCompound(), false));
+        assertTrue(check(new NBTTagList(), null, true));
+        assertFalse(check(null, new NBTTagInt(0), true));
+        assertFalse(check(new NBTTagString(""), null, true));
+    }
+
+    /**
+     * Asserts the compiled predicate agrees with the old comparison and returns their result
+     */
+    private static boolean check(NBTBase required, NBTBase sample, boolean partial) {
+        boolean expected = ItemComparison.CompareNBTTag(required, sample, partial);
+        assertEquals(
+            "required " + required + ", sample " + sample + ", partial " + partial,
+            expected,
+            NBTPredicate.compile(required, partial)
+                .test(sample));
+        return expected;
+    }
+
+    private static NBTTagList compoundList(int... values) {
+        NBTTagList list = new NBTTagList();
+        for (int value : values) {
+            NBTTagCompound entry = new NBTTagCompound();
+            entry.setInteger("v", value);
+            list.appendTag(entry);
+        }
+        return list;
+    }
+
+    // Small value ranges so keys, numbers and array entries collide often
+    private static NBTBase randomTag(Random rand, int depth) {
+        switch (rand.nextInt(depth <= 0 ? 6 : 9)) {
+            case 0:
+            case 1:
+            case 2:
+                return randomNumber(rand);
+            case 3:
+                return new NBTTagString(String.valueOf((char) ('a' + rand.nextInt(2))));
+            case 4: {
+                int[] values = new int[rand.nextInt(4)];
+                for (int i = 0; i < values.length; i++) values[i] = rand.nextInt(3);
+                return new NBTTagIntArray(values);
+            }
+            case 5: {
+                byte[] values = new byte[rand.nextInt(4)];
+                for (int i = 0; i < values.length; i++) values[i] = (byte) (rand.nextInt(3) - 1);
+                return new NBTTagByteArray(values);
+            }
+            case 6:
+            case 7:
+                return randomCompound(rand, depth - 1);
+            default: {
+                NBTTagList list = new NBTTagList();
+                int count = rand.nextInt(3);
+                // Lists of numbers only ever compare as empty compounds. Entries must share a type to be added
+                boolean compounds = rand.nextInt(3) > 0;
+                for (int i = 0; i < count; i++) {
+                    list.appendTag(compounds ? randomCompound(rand, depth - 1) : new NBTTagInt(rand.nextInt(3)));
+                }
+                return list;
+            }
+        }
+    }
+
+    private static NBTTagCompound randomCompound(Random rand, int depth) {
+        NBTTagCompound tag = new NBTTagCompound();
+        int count = rand.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            tag.setTag(String.valueOf((char) ('a' + rand.nextInt(3))), randomTag(rand, depth));
+        }
+        return tag;
+    }
+
+    private static NBTBase randomNumber(Random rand) {
+        switch (rand.nextInt(6)) {
+            case 0:
+                return new NBTTagByte((byte) rand.nextInt(3));
+            case 1:
+                return new NBTTagShort((short) rand.nextInt(3));
+            case 2:
+                return new NBTTagInt(rand.nextInt(3));
+            case 3:
+                return new NBTTagLong(rand.nextInt(3));
+            case 4:
+                return new NBTTagFloat(rand.nextInt(6) / 2F);
+            default:
+                return new NBTTagDouble(rand.nextInt(10) == 0 ? Double.NaN : rand.nextInt(6) / 2D);
+        }
+    }
+
+    /**
+     * A copy of the tag that was shuffled, grown, retyped or edited somewhere, so it only sometimes still matches
+     */
+    @SuppressWarnings("unchecked")
+    private static NBTBase mutate(Random rand, NBTBase tag) {
+        if (tag instanceof NBTTagCompound) {
+            NBTTagCompound copy = new NBTTagCompound();
+            for (String key : (Set<String>) ((NBTTagCompound) tag).func_150296_c()) {
+                // Drop a key now and then
+                if (rand.nextInt(10) == 0) continue;
+                copy.setTag(key, mutate(rand, ((NBTTagCompound) tag).getTag(key)));
+            }
+            if (rand.nextInt(4) == 0) copy.setTag("x", randomTag(rand, 1));
+            return copy;
+        } else if (tag instanceof NBTTagList) {
+            NBTTagList list = (NBTTagList) tag;
+            // Other entries can't be read back generically, they only ever compare as empty compounds anyway
+            if (list.func_150303_d() != Constants.NBT.TAG_COMPOUND) return list.copy();
+
+            List<NBTBase> entries = new ArrayList<>();
+            for (int i = 0; i < list.tagCount(); i++) entries.add(mutate(rand, list.getCompoundTagAt(i)));
+            if (rand.nextInt(3) == 0 && !entries.isEmpty()) {
+                entries.add(
+                    entries.get(rand.nextInt(entries.size()))
+                        .copy());
+            }
+            Collections.shuffle(entries, rand);
+
+            NBTTagList copy = new NBTTagList();
+            for (NBTBase entry : entries) copy.appendTag(entry);
+            return copy;
+        } else if (tag instanceof NBTTagIntArray) {
+            List<Integer> values = new ArrayList<>();
+            for (int value : ((NBTTagIntArray) tag).func_150302_c()) values.add(value);
+            if (rand.nextInt(3) == 0) values.add(rand.nextInt(3));
+            if (rand.nextInt(6) == 0 && !values.isEmpty()) values.remove(0);
+            Collections.shuffle(values, rand);
+
+            int[] result = new int[values.size()];
+            for (int i = 0; i < result.length; i++) result[i] = values.get(i);
+            return new NBTTagIntArray(result);
+        } else if (tag instanceof NBTTagByteArray) {
+            List<Byte> values = new ArrayList<>();
+            for (byte value : ((NBTTagByteArray) tag).func_150292_c()) values.add(value);
+            if (rand.nextInt(3) == 0) values.add((byte) (rand.nextInt(3) - 1));
+            if (rand.nextInt(6) == 0 && !values.isEmpty()) values.remove(0);
+            Collections.shuffle(values, rand);
+
+            byte[] result = new byte[values.size()];
+            for (int i = 0; i < result.length; i++) result[i] = values.get(i);
+            return new NBTTagByteArray(result);
+        } else if (tag instanceof NBTBase.NBTPrimitive && rand.nextInt(4) == 0) {
+            // Same type or not, numbers are compared by value
+            return randomNumber(rand);
+        }
+
+        return tag.copy();
+    }
+}
@@ -0,0 +1,52 @@
+package betterquesting.network.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class NetQuestSyncTest {
+
+    @Test
+    public void configForEveryoneQueuedAfterProgressIsSentFirst() {
+        // Progress for a player is queued, then a full config sync for everyone in the same tick
+        Map<String, String> queue = new LinkedHashMap<>();
+        queue.put("alice", "progress");
+        queue.put(null, "full config");
+
+        Map<String, String> batch = NetQuestSync.drain(queue, null);
+
+        assertEquals(Arrays.asList(null, "alice"), new ArrayList<>(batch.keySet()));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void flushForPlayersTakesOnlyThemAndEveryone() {
+        Map<String, String> queue = new LinkedHashMap<>();
+        queue.put("alice", "progress");
+        queue.put("bob", "progress");
+        queue.put(null, "full config");
+
+        Map<String, String> batch = NetQuestSync.drain(queue, Collections.singletonList("bob"));
+
+        assertEquals(Arrays.asList(null, "bob"), new ArrayList<>(batch.keySet()));
+        assertEquals(Collections.singletonList("alice"), new ArrayList<>(queue.keySet()));
+    }
+
+    @Test
+    public void playerOrderIsKept() {
+        Map<String, String> queue = new LinkedHashMap<>();
+        queue.put("bob", "progress");
+        queue.put("alice", "config");
+
+        Map<String, String> batch = NetQuestSync.drain(queue, null);
+
+        assertEquals(Arrays.asList("bob", "alice"), new ArrayList<>(batch.keySet()));
+    }
+}